@@ -1,6 +0,0 @@
-public enum Action {
-    MESSAGE,     // Текстовое сообщение
-    BOARD,       // Отправка поля
-    YOUR_TURN,   // Ход игрока
-    GAME_OVER    // Конец игры
-}
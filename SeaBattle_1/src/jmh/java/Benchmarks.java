@@ -0,0 +1,411 @@
+import bench.Case;
+import bench.Suite;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Замеры движка сокетной версии для JMH (общая обвязка – модуль benchmarks).
+ *
+ * Запуск: mvn -pl SeaBattle_1 test-compile exec:exec -Djmh.args="[параметры JMH] [регулярки имён]"
+ *
+ * Движки в SeaBattle_1 и SeaBattle_2 одинаковые, поэтому создание партии, выстрелы,
+ * отрисовка поля, разбор координат, ходы ботов (Strategy), цена метрик (Metrics) и журнала событий (EventLog)
+ * меряются здесь; SOAP – в Benchmarks из SeaBattle_2. Трафик протоколов считает ProtocolTraffic.
+ */
+public class Benchmarks implements Suite {
+
+    private static final int SIZE = GameRules.STANDARD.getSize();
+
+    @Override
+    public Map<String, Callable<Case>> cases() {
+        Map<String, Callable<Case>> cases = new LinkedHashMap<>();
+        construction(cases);
+        shots(cases);
+        rendering(cases);
+        parsing(cases);
+        strategies(cases);
+        metrics(cases);
+        logging(cases);
+        return cases;
+    }
+
+    // --- Создание партии: обе расстановки флота ---
+
+    private static void construction(Map<String, Callable<Case>> cases) {
+        cases.put("engine.construct.char", () -> new Case() {
+            long seed = 0;
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(new GameServiceImpl(seed++));
+            }
+        });
+        cases.put("engine.construct.bitboard", () -> new Case() {
+            long seed = 0;
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(new BitboardGameService(seed++));
+            }
+        });
+
+        // Расстановки из запаса: заготовщик успевает пополнять его между пачками setUp
+        cases.put("engine.construct.pooled", () -> new Case() {
+            final FleetPool pool = new FleetPool(2 * 1000, GameRules.STANDARD);
+            final long hits = FleetPool.getHits();
+            final long misses = FleetPool.getMisses();
+
+            @Override
+            public void setUp(int n) {
+                while (pool.available() < 2 * n) Thread.yield();
+            }
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(new GameServiceImpl(GameRules.STANDARD, pool.take(), pool.take()));
+            }
+
+            @Override
+            public void close() {
+                pool.shutdown();
+                System.out.println("fleet_pool_total: hit " + (FleetPool.getHits() - hits)
+                        + ", miss " + (FleetPool.getMisses() - misses));
+            }
+        });
+
+        // Тот же движок для новой партии: флот расставляется прямо в его массивы, памяти не нужно
+        cases.put("engine.reset.seed", () -> new Case() {
+            final GameServiceImpl engine = new GameServiceImpl(0);
+            long seed = 0;
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    engine.reset(seed++);
+                    bh.consume(engine.getWinner());
+                }
+            }
+        });
+
+        // Партия берёт движок из EnginePool и возвращает его в конце
+        cases.put("engine.construct.enginePool", () -> new Case() {
+            final EnginePool engines = new EnginePool(16, GameRules.STANDARD);
+            final long misses = EnginePool.getMisses();
+            long seed = 0;
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    GameServiceImpl engine = engines.acquire(seed++);
+                    bh.consume(engine.getWinner());
+                    engines.release(engine);
+                }
+            }
+
+            @Override
+            public void close() {
+                System.out.println("engine_pool_total: miss " + (EnginePool.getMisses() - misses));
+            }
+        });
+    }
+
+    // --- Выстрел: промах, попадание, потопление ---
+
+    private static void shots(Map<String, Callable<Case>> cases) {
+        for (final GameService.ShotResult kind : new GameService.ShotResult[]{
+                GameService.ShotResult.MISS, GameService.ShotResult.HIT, GameService.ShotResult.SUNK}) {
+            String suffix = kind.name().toLowerCase();
+            cases.put("engine.shoot." + suffix + ".char", () -> new ShotCase(kind, false));
+            cases.put("engine.shoot." + suffix + ".bitboard", () -> new ShotCase(kind, true));
+        }
+    }
+
+    // Каждый выстрел – по свежей партии в заранее найденную клетку нужного вида
+    private static final class ShotCase implements Case {
+        private final GameService.ShotResult kind;
+        private final boolean bitboard;
+        private GameService[] games;
+        private int[] cells;
+        private long seed = 0;
+
+        ShotCase(GameService.ShotResult kind, boolean bitboard) {
+            this.kind = kind;
+            this.bitboard = bitboard;
+        }
+
+        @Override
+        public void setUp(int n) {
+            games = new GameService[n];
+            cells = new int[n];
+            for (int i = 0; i < n; i++) {
+                games[i] = bitboard ? new BitboardGameService(seed) : new GameServiceImpl(seed);
+                cells[i] = target(games[i], kind);
+                seed++;
+            }
+        }
+
+        @Override
+        public void run(int n, Blackhole bh) {
+            for (int i = 0; i < n; i++) {
+                bh.consume(games[i].shoot(1, cells[i] / SIZE, cells[i] % SIZE));
+            }
+        }
+    }
+
+    // Клетка поля Игрока 2, выстрел в которую даст kind: вода, палуба длинного корабля или однопалубник
+    private static int target(GameService game, GameService.ShotResult kind) {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                boolean ship = isShip(game, r, c);
+                if (kind == GameService.ShotResult.MISS) {
+                    if (!ship) return r * SIZE + c;
+                    continue;
+                }
+                if (!ship) continue;
+                boolean multiDeck = isShip(game, r - 1, c) || isShip(game, r + 1, c)
+                        || isShip(game, r, c - 1) || isShip(game, r, c + 1);
+                if (multiDeck == (kind == GameService.ShotResult.HIT)) return r * SIZE + c;
+            }
+        }
+        throw new IllegalStateException("Нет клетки для " + kind);
+    }
+
+    private static boolean isShip(GameService game, int r, int c) {
+        return r >= 0 && r < SIZE && c >= 0 && c < SIZE && game.cellForPlayer(2, true, r, c) == 'O';
+    }
+
+    // --- Отрисовка поля: с нуля против кэша ---
+
+    private static void rendering(Map<String, Callable<Case>> cases) {
+        cases.put("render.full", () -> new Case() {
+            final GameServiceImpl fixed = new GameServiceImpl(42);
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(fixed.renderFull(1));
+            }
+        });
+        cases.put("render.cached", () -> new Case() {
+            final GameServiceImpl fixed = new GameServiceImpl(42);
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(fixed.boardForPlayer(1));
+            }
+        });
+        cases.put("render.bitboard", () -> new Case() {
+            final BitboardGameService game = new BitboardGameService(42);
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(game.boardForPlayer(1));
+            }
+        });
+        // Типичный случай сервера: выстрел и сразу поле обоим игрокам
+        cases.put("render.afterShot.full", () -> new RenderAfterShot(false));
+        cases.put("render.afterShot.cached", () -> new RenderAfterShot(true));
+    }
+
+    private static final class RenderAfterShot implements Case {
+        private final boolean cached;
+        private GameServiceImpl[] games;
+        private long seed = 0;
+
+        RenderAfterShot(boolean cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public void setUp(int n) {
+            games = new GameServiceImpl[n];
+            for (int i = 0; i < n; i++) {
+                games[i] = new GameServiceImpl(seed++);
+                games[i].boardForPlayer(1);
+                games[i].boardForPlayer(2);
+            }
+        }
+
+        @Override
+        public void run(int n, Blackhole bh) {
+            for (int i = 0; i < n; i++) {
+                GameServiceImpl game = games[i];
+                game.shoot(1, i % SIZE, (i / SIZE) % SIZE);
+                bh.consume(cached ? game.boardForPlayer(1) : game.renderFull(1));
+                bh.consume(cached ? game.boardForPlayer(2) : game.renderFull(2));
+            }
+        }
+    }
+
+    // --- Разбор координат ---
+
+    private static void parsing(Map<String, Callable<Case>> cases) {
+        final String[] inputs = new String[SIZE * SIZE + 4];
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            inputs[i] = GameRules.coordToString(i / SIZE, i % SIZE);
+        }
+        inputs[SIZE * SIZE] = " b7 ";
+        inputs[SIZE * SIZE + 1] = "K1";
+        inputs[SIZE * SIZE + 2] = "A10";
+        inputs[SIZE * SIZE + 3] = "?";
+
+        cases.put("parseCoord", () -> new Case() {
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    int[] rc = GameRules.STANDARD.parseCoord(inputs[i % inputs.length]);
+                    if (rc != null) bh.consume(rc[0] + rc[1]);
+                }
+            }
+        });
+    }
+
+    // --- Ход бота: выбор клетки, выстрел и учёт результата ---
+
+    private static void strategies(Map<String, Callable<Case>> cases) {
+        for (String name : new String[]{"random", "hunt", "density"}) {
+            cases.put("strategy.move." + name, () -> new StrategyCase(name));
+        }
+    }
+
+    /**
+     * Бот стреляет за Игрока 1 партию за партией; новая партия (примерно раз в 50–100 ходов)
+     * входит в замер.
+     */
+    private static final class StrategyCase implements Case {
+        private final Strategy strategy;
+        private long seed = 0;
+        private GameService game;
+
+        StrategyCase(String name) {
+            strategy = Strategy.create(name, GameRules.STANDARD, 7);
+        }
+
+        @Override
+        public void run(int n, Blackhole bh) {
+            for (int i = 0; i < n; i++) {
+                if (game == null || game.isGameOver()) {
+                    game = new BitboardGameService(seed++);
+                    strategy.reset();
+                }
+                int cell = strategy.nextShot();
+                int row = cell / SIZE;
+                int col = cell % SIZE;
+                GameService.ShotResult result = game.shoot(1, row, col);
+                strategy.onResult(row, col, result, result == GameService.ShotResult.SUNK ? game.getLastSunkShip() : null);
+                bh.consume(result);
+            }
+        }
+    }
+
+    // --- Метрики: во что обходится выстрелу его учёт (Match) ---
+
+    private static void metrics(Map<String, Callable<Case>> cases) {
+        cases.put("metrics.counter.increment", () -> new Case() {
+            final LongAdder counter = new LongAdder();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    counter.increment();
+                }
+                bh.consume(counter.sum());
+            }
+        });
+
+        cases.put("metrics.histogram.record", () -> new Case() {
+            final LatencyHistogram histogram = new LatencyHistogram();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    histogram.record(500 + (i & 0xFFFF));
+                }
+                bh.consume(histogram.getMax());
+            }
+        });
+
+        // всё, что добавляет к выстрелу Match: два System.nanoTime, запись в гистограмму и счётчик
+        cases.put("metrics.shotOverhead", () -> new Case() {
+            final LongAdder counter = new LongAdder();
+            final LatencyHistogram histogram = new LatencyHistogram();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    long start = System.nanoTime();
+                    counter.increment();
+                    histogram.record(System.nanoTime() - start);
+                }
+                bh.consume(counter.sum());
+            }
+        });
+
+        cases.put("metrics.scrape", () -> {
+            Metrics.get().histogram("bench_latency_ns").record(1);
+            return (n, bh) -> {
+                for (int i = 0; i < n; i++) {
+                    bh.consume(Metrics.get().scrape());
+                }
+            };
+        });
+    }
+
+    // --- Журнал событий: сколько стоит событие потоку партии ---
+
+    private static void logging(Map<String, Callable<Case>> cases) {
+        // как System.out: println сбрасывает поток на каждой строке
+        cases.put("log.println", () -> new Case() {
+            final Path file = Files.createTempFile("battleship-events", ".log");
+            final PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.toFile())), true);
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) {
+                    out.println("Игрок " + i + " стреляет по A" + (i & 7) + " -> Мимо");
+                }
+            }
+
+            @Override
+            public void close() throws Exception {
+                out.close();
+                Files.delete(file);
+            }
+        });
+        // BLOCK: ничего не теряется, время включает ожидание писателя
+        cases.put("log.eventLog.block", () -> new EventLogCase(EventLog.Overflow.BLOCK));
+        // DROP: цена вызова для потока партии, лишнее отбрасывается
+        cases.put("log.eventLog.drop", () -> new EventLogCase(EventLog.Overflow.DROP));
+    }
+
+    private static final class EventLogCase implements Case {
+        private final Path file;
+        private final EventLog log;
+
+        EventLogCase(EventLog.Overflow overflow) throws Exception {
+            file = Files.createTempFile("battleship-events", ".log");
+            log = EventLog.open(file, EventLog.DEFAULT_CAPACITY, overflow);
+        }
+
+        @Override
+        public void run(int n, Blackhole bh) {
+            for (int i = 0; i < n; i++) {
+                log.log("shot", "seat", 2, "cell", "A" + (i & 7), "result", GameService.ShotResult.MISS);
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            log.close();
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+public enum Action {
+    MESSAGE,     // Текстовое сообщение
+    BOARD,       // Отправка поля
+    YOUR_TURN,   // Ход игрока
+    GAME_OVER,   // Конец игры
+    SHOT,        // Выстрел клиента (в текстовом режиме – строка "SHOT A0")
+    CELL,        // Изменилась одна клетка (только BinaryProtocol)
+    SUNK,        // Потоплен корабль (только BinaryProtocol)
+    NOT_MODIFIED // Ответ на "BOARD <версия>": поле с этой версии не менялось (только текстовый)
+}
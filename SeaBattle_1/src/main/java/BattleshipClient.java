@@ -0,0 +1,228 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Scanner;
+
+/**
+ * Запуск: java BattleshipClient [--binary]
+ * С --binary клиент при первом ходе переводит соединение на BinaryProtocol.
+ * В свой ход вместо клетки можно ввести "поле": клиент попросит поле у сервера
+ * с версией последнего полученного, и если оно не изменилось, сервер пришлёт только NOT_MODIFIED.
+ */
+public class BattleshipClient {
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 5000;
+
+    private final Scanner scanner = new Scanner(System.in);
+
+    private final boolean wantBinary;
+    private boolean binary = false;
+
+    // поля из двоичного BOARD (размер задаёт сервер), дальше их обновляют кадры CELL
+    private char[][] ownBoard;
+    private char[][] shotBoard;
+
+    // версия последнего текстового BOARD (-1 – ещё не было) и последнее поле целиком
+    private long boardVersion = -1;
+    private String boardText;
+    // сейчас наш ход, а выстрела ещё не было (ждём ответа на запрос поля)
+    private boolean myTurn = false;
+
+    public BattleshipClient(boolean wantBinary) {
+        this.wantBinary = wantBinary;
+    }
+
+    public static void main(String[] args) {
+        boolean binary = args.length > 0 && args[0].equals("--binary");
+        new BattleshipClient(binary).run();
+    }
+
+    private void run() {
+        System.out.println("=== Морской бой (Клиент, Игрок 2) ===");
+        System.out.println("Подключение к " + HOST + ":" + PORT + "...");
+
+        try (Socket socket = new Socket(HOST, PORT);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+
+            System.out.println("Подключено. Ожидание инструкций от сервера...");
+
+            while (true) {
+                if (binary) {
+                    BinaryProtocol.Frame frame = BinaryProtocol.readFrame(in);
+                    if (frame == null || !handleFrame(frame, out)) break;
+                    continue;
+                }
+
+                String line = BinaryProtocol.readLine(in);
+                if (line == null) break;
+
+                line = line.trim();
+                if (line.startsWith(Action.MESSAGE.name() + ":")) {
+                    String msg = line.substring((Action.MESSAGE.name() + ":").length());
+                    System.out.println(msg);
+                } else if (line.equals(Action.BOARD.name()) || line.startsWith(Action.BOARD.name() + ":")) {
+                    readAndPrintBoard(in, line);
+                    if (myTurn) handleMyTurn(out);
+                } else if (line.startsWith(Action.NOT_MODIFIED.name() + ":")) {
+                    System.out.println("Поле не изменилось:");
+                    System.out.print(boardText);
+                    if (myTurn) handleMyTurn(out);
+                } else if (line.equals(Action.YOUR_TURN.name())) {
+                    handleMyTurn(out);
+                } else if (line.startsWith(Action.GAME_OVER.name() + ":")) {
+                    handleGameOver(line);
+                    break;
+                } else {
+                    // на всякий случай печатаем всё непонятное
+                    System.out.println(line);
+                }
+            }
+
+        } catch (IOException e) {
+            System.out.println("Ошибка клиента: " + e.getMessage());
+        }
+    }
+
+    // Кадр двоичного протокола; false – игра окончена
+    private boolean handleFrame(BinaryProtocol.Frame frame, OutputStream out) throws IOException {
+        switch (frame.action) {
+            case MESSAGE:
+                System.out.println(frame.text());
+                return true;
+            case BOARD:
+                int size = frame.boardSize();
+                if (ownBoard == null || ownBoard.length != size) {
+                    ownBoard = new char[size][size];
+                    shotBoard = new char[size][size];
+                }
+                frame.decodeBoard(ownBoard, shotBoard);
+                System.out.print(renderBoards());
+                return true;
+            case CELL:
+                frame.applyCell(ownBoard, shotBoard);
+                System.out.print(renderBoards());
+                return true;
+            case SUNK:
+                // палубы уже отмечены через CELL, о потоплении сервер пишет в MESSAGE
+                return true;
+            case YOUR_TURN:
+                handleMyTurn(out);
+                return true;
+            case GAME_OVER:
+                handleGameOver(frame.winner(), frame.text());
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // header – строка "BOARD" или "BOARD:<версия>"
+    private void readAndPrintBoard(DataInputStream in, String header) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        String line;
+        while ((line = BinaryProtocol.readLine(in)) != null) {
+            if ("END_BOARD".equals(line)) break;
+            sb.append(line).append("\n");
+        }
+        int colon = header.indexOf(':');
+        try {
+            boardVersion = colon < 0 ? -1 : Long.parseLong(header.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            boardVersion = -1;
+        }
+        boardText = sb.toString();
+        System.out.print(boardText);
+    }
+
+    private void handleMyTurn(OutputStream out) throws IOException {
+        myTurn = true;
+        while (true) {
+            System.out.print("Введите клетку для выстрела (например A0): ");
+            String input = scanner.nextLine();
+            if (input.trim().equalsIgnoreCase("поле")) {
+                if (binary) {
+                    // двоичный клиент знает поле сам
+                    System.out.print(renderBoards());
+                    continue;
+                }
+                out.write((Action.BOARD.name() + " " + boardVersion + "\n").getBytes(BinaryProtocol.TEXT_CHARSET));
+                out.flush();
+                return; // продолжим после BOARD или NOT_MODIFIED
+            }
+            // размер поля известен только после двоичного BOARD, иначе клетку проверит сервер
+            int[] rc = GameRules.parseCoord(input, ownBoard != null ? ownBoard.length : GameRules.MAX_SIZE);
+            if (rc == null) {
+                System.out.println("Неверный формат координаты. Пример: A0");
+                continue;
+            }
+
+            // Переход на двоичный протокол – ответом на первый YOUR_TURN
+            if (wantBinary && !binary) {
+                out.write((BinaryProtocol.HELLO + "\n").getBytes(BinaryProtocol.TEXT_CHARSET));
+                binary = true;
+            }
+
+            if (binary) {
+                out.write(BinaryProtocol.shot(rc[0], rc[1]));
+            } else {
+                out.write(("SHOT " + input.trim().toUpperCase() + "\n").getBytes(BinaryProtocol.TEXT_CHARSET));
+            }
+            out.flush();
+            myTurn = false;
+            break; // дальше ждём ответов от сервера
+        }
+    }
+
+    private void handleGameOver(String line) {
+        // формат: GAME_OVER:winner:текст
+        String[] parts = line.split(":", 3);
+        int winner = 0;
+        if (parts.length >= 2) {
+            try {
+                winner = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String text = parts.length == 3 ? parts[2] : "Игра окончена.";
+        handleGameOver(winner, text);
+    }
+
+    private void handleGameOver(int winner, String text) {
+        System.out.println(text);
+        if (winner == 2) {
+            System.out.println("Вы победили! 🎉");
+        } else if (winner == 1) {
+            System.out.println("Вы проиграли.");
+        }
+    }
+
+    // Та же разметка, что и у GameServiceImpl.boardForPlayer
+    private String renderBoards() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("====================================\n");
+        sb.append("Ваши корабли:\n");
+        renderBoard(sb, ownBoard);
+        sb.append("\nВаши выстрелы по противнику:\n");
+        renderBoard(sb, shotBoard);
+        sb.append("\nЛегенда: O – корабль, X – попадание, * – промах, ~ – вода\n");
+        sb.append("====================================\n");
+        return sb.toString();
+    }
+
+    private static void renderBoard(StringBuilder sb, char[][] board) {
+        BoardText text = BoardText.of(board.length);
+        text.appendHeader(sb);
+        for (int r = 0; r < board.length; r++) {
+            text.appendRowStart(sb, r);
+            for (int c = 0; c < board.length; c++) {
+                text.appendCell(sb, board[r][c]);
+            }
+            sb.append("\n");
+        }
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Запуск:
+ *  java BattleshipServer                    – Игрок 1 за консолью сервера, клиент – Игрок 2;
+ *  java BattleshipServer --bot [стратегия]  – Игрок 1 – бот (random, hunt или density,
+ *                                             по умолчанию density), сервер играет без человека;
+ *  java BattleshipServer --lobby [platform] – оба игрока удалённые, сервер сводит их в пары
+ *                                             и ведёт каждую партию в своём (виртуальном) потоке.
+ * Во всех режимах --rules размер:флот задаёт поле и флот, например --rules 16:5,4,4,3,3,2,2,1,1
+ * (по умолчанию – 10×10 и стандартный флот, см. GameRules), а --metrics порт включает
+ * http://хост:порт/metrics – счётчики и задержки партий (Metrics; они же есть в JMX).
+ * События партий (начало, конец с записью партии, ходы бота) пишет EventLog – по умолчанию
+ * в консоль, с --log файл – в файл; --log-overflow block велит ждать места в буфере журнала
+ * вместо того, чтобы отбрасывать события (drop, по умолчанию).
+ */
+public class BattleshipServer {
+
+    private static final int PORT = 5000;
+
+    private final GameService game;
+    private final GameRecord record;
+    private final Scanner scanner = new Scanner(System.in);
+    // null – Игрок 1 вводит ходы с консоли
+    private final Strategy bot;
+
+    public BattleshipServer(GameRules rules) {
+        this(rules, null);
+    }
+
+    /**
+     * Сервер, за Игрока 1 у которого ходит стратегия bot (null – человек за консолью).
+     */
+    public BattleshipServer(GameRules rules, Strategy bot) {
+        FleetPlacer placer = new FleetPlacer(rules);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        FleetLayout first = placer.place(random.nextLong());
+        FleetLayout second = placer.place(random.nextLong());
+        this.game = new GameServiceImpl(rules, first, second);
+        this.record = new GameRecord(rules, first, second);
+        this.bot = bot;
+    }
+
+    public static void main(String[] args) throws IOException {
+        GameRules rules = GameRules.STANDARD;
+        String botName = null;
+        String logFile = null;
+        EventLog.Overflow overflow = EventLog.Overflow.DROP;
+        List<String> rest = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--rules") && i + 1 < args.length) {
+                rules = GameRules.parse(args[++i]);
+            } else if (args[i].equals("--bot")) {
+                botName = i + 1 < args.length && !args[i + 1].startsWith("--") ? args[++i] : "density";
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                Metrics.get().serve(Integer.parseInt(args[++i]));
+            } else if (args[i].equals("--log") && i + 1 < args.length) {
+                logFile = args[++i];
+            } else if (args[i].equals("--log-overflow") && i + 1 < args.length) {
+                overflow = EventLog.Overflow.valueOf(args[++i].toUpperCase(Locale.ROOT));
+            } else {
+                rest.add(args[i]);
+            }
+        }
+        if (logFile != null) {
+            EventLog.configure(Paths.get(logFile), overflow);
+        }
+
+        if (!rest.isEmpty() && rest.get(0).equals("--lobby")) {
+            boolean virtual = !(rest.size() > 1 && rest.get(1).equals("platform"));
+            runLobby(rules, virtual);
+            return;
+        }
+        Strategy bot = botName == null ? null
+                : Strategy.create(botName, rules, ThreadLocalRandom.current().nextLong());
+        new BattleshipServer(rules, bot).run();
+    }
+
+    // Лобби: первый подключившийся ждёт, второй забирает его в партию
+    private static void runLobby(GameRules rules, boolean virtual) {
+        ExecutorService matches = newMatchExecutor(virtual);
+        System.out.println("=== Морской бой (Сервер-лобби) ===");
+        System.out.println("Ожидание игроков на порту " + PORT + "...");
+
+        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+            StreamPlayerLink waiting = null;
+
+            while (true) {
+                Socket client = serverSocket.accept();
+                client.setTcpNoDelay(true);
+                StreamPlayerLink link = new StreamPlayerLink(client);
+
+                if (waiting != null && !waiting.isAlive()) {
+                    waiting.close();
+                    waiting = null;
+                }
+
+                if (waiting == null) {
+                    waiting = link;
+                    link.sendMessage("Ожидание соперника...");
+                    continue;
+                }
+
+                StreamPlayerLink first = waiting;
+                waiting = null;
+                matches.execute(() -> playMatch(rules, first, link));
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка сервера: " + e.getMessage());
+        } finally {
+            matches.shutdown();
+        }
+    }
+
+    // Вся партия – обычный блокирующий цикл: ждём строку от того, чей сейчас ход
+    private static void playMatch(GameRules rules, StreamPlayerLink first, StreamPlayerLink second) {
+        StreamPlayerLink[] links = {first, second};
+        Match match = new Match(rules, first, second);
+        match.start();
+
+        while (!match.isFinished()) {
+            int seat = match.getCurrentPlayer();
+            String line = links[seat - 1].readLine();
+            if (line == null) {
+                match.onDisconnect(seat);
+                break;
+            }
+            match.onLine(seat, line);
+        }
+    }
+
+    // Виртуальный поток на партию (Java 21+), иначе – обычный поток на партию
+    private static ExecutorService newMatchExecutor(boolean virtual) {
+        if (virtual) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Виртуальные потоки недоступны (нужна Java 21+), используем обычные.");
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    private void run() {
+        System.out.println("=== Морской бой (Сервер, Игрок 1) ===");
+        System.out.println("Ожидание подключения на порту " + PORT + "...");
+
+        try (ServerSocket serverSocket = new ServerSocket(PORT);
+             Socket client = serverSocket.accept()) {
+
+            StreamPlayerLink link = new StreamPlayerLink(client);
+            System.out.println("Клиент подключён. Вы – Игрок 1, клиент – Игрок 2.");
+            link.sendMessage("Подключено к серверу. Вы – Игрок 2.");
+            link.sendBoard(game, 2);
+
+            int currentPlayer = 1;
+
+            while (!game.isGameOver()) {
+                if (currentPlayer == 1) {
+                    boolean repeat = doServerTurn(link);
+                    if (!repeat && !game.isGameOver()) {
+                        currentPlayer = 2;
+                    }
+                } else {
+                    boolean repeat = doClientTurn(link);
+                    if (!repeat && !game.isGameOver()) {
+                        currentPlayer = 1;
+                    }
+                }
+            }
+
+            int winner = game.getWinner();
+            String resultText = "Игра окончена. Победил игрок " + winner + ".";
+            System.out.println(resultText);
+            System.out.println("Запись партии: " + record);
+            link.sendGameOver(winner, resultText);
+            link.close();
+
+        } catch (IOException e) {
+            System.out.println("Ошибка сервера: " + e.getMessage());
+        }
+    }
+
+    // Ход сервера (Игрок 1). Возвращает true, если игрок ходит ещё раз.
+    private boolean doServerTurn(PlayerLink link) {
+        int[] rc;
+        if (bot == null) {
+            System.out.println("\n--- Ваш ход (Игрок 1) ---");
+            System.out.println(game.boardForPlayer(1));
+            rc = askCoordinateFromConsole("Введите клетку для выстрела (например A0): ", 1);
+        } else {
+            rc = askCoordinateFromBot();
+        }
+        int row = rc[0];
+        int col = rc[1];
+
+        GameService.ShotResult result = game.shoot(1, row, col);
+        record.addShot(1, row, col);
+        if (bot != null) {
+            bot.onResult(row, col, result, result == GameService.ShotResult.SUNK ? game.getLastSunkShip() : null);
+        }
+        String coordStr = GameRules.coordToString(row, col);
+        String resText = shotText(game, result);
+        report(1, coordStr, result, resText);
+
+        link.sendMessage("Противник стрелял по " + coordStr + " -> " + resText);
+        link.sendShot(game, 2, 1, row, col, result);
+
+        return result == GameService.ShotResult.HIT || result == GameService.ShotResult.SUNK;
+    }
+
+    // Ход клиента (Игрок 2). Возвращает true, если клиент ходит ещё раз.
+    private boolean doClientTurn(StreamPlayerLink link) throws IOException {
+        // поле клиент уже получил после предыдущего выстрела
+        link.sendMessage("\n--- Ваш ход (Игрок 2) ---");
+        link.sendYourTurn();
+
+        while (true) {
+            String line = link.readLine();
+            if (line == null) {
+                throw new IOException("Клиент отключился.");
+            }
+
+            line = line.trim();
+            long known = Match.knownVersion(line);
+            if (known != Match.NOT_BOARD_REQUEST) {
+                Match.sendBoard(link, game, 2, known);
+                continue;
+            }
+            if (!line.startsWith("SHOT ")) {
+                // Непонятная команда — игнорируем
+                continue;
+            }
+
+            String coordStr = line.substring(5).trim();
+            int[] rc = game.getRules().parseCoord(coordStr);
+            if (rc == null) {
+                link.sendMessage("Неверный формат координаты. Используйте, например, A0.");
+                link.sendYourTurn();
+                continue;
+            }
+
+            int row = rc[0];
+            int col = rc[1];
+
+            if (!game.canShoot(2, row, col)) {
+                link.sendMessage("В эту клетку уже стреляли или она вне поля. Попробуйте снова.");
+                link.sendYourTurn();
+                continue;
+            }
+
+            GameService.ShotResult result = game.shoot(2, row, col);
+            record.addShot(2, row, col);
+            String resText = shotText(game, result);
+            report(2, GameRules.coordToString(row, col), result, resText);
+
+            link.sendMessage("Вы стреляли по " + GameRules.coordToString(row, col) + " -> " + resText);
+            link.sendShot(game, 2, 2, row, col, result);
+
+            return result == GameService.ShotResult.HIT || result == GameService.ShotResult.SUNK;
+        }
+    }
+
+    /**
+     * Выстрел игрока seat. Человеку за консолью это часть игры, и он видит его сразу;
+     * за бота никто не смотрит, поэтому его партия идёт в журнал событий, не задерживая ход.
+     */
+    private void report(int seat, String coordStr, GameService.ShotResult result, String resText) {
+        if (bot == null) {
+            System.out.println((seat == 1 ? "Выстрел по " : "Игрок 2 стреляет по ") + coordStr + " -> " + resText);
+        } else {
+            EventLog.get().log("shot", "seat", seat, "cell", coordStr, "result", result);
+        }
+    }
+
+    private int[] askCoordinateFromConsole(String prompt, int playerId) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine();
+            int[] rc = game.getRules().parseCoord(input);
+            if (rc == null) {
+                System.out.println("Неверный формат координаты. Пример: A0");
+                continue;
+            }
+            if (!game.canShoot(playerId, rc[0], rc[1])) {
+                System.out.println("В эту клетку уже стреляли или она вне поля. Попробуйте ещё раз.");
+                continue;
+            }
+            return rc;
+        }
+    }
+
+    private int[] askCoordinateFromBot() {
+        int size = game.getRules().getSize();
+        int cell = bot.nextShot();
+        int row = cell / size;
+        int col = cell % size;
+        if (!game.canShoot(1, row, col)) {
+            throw new IllegalStateException("Бот выбрал клетку, куда уже стреляли: " + GameRules.coordToString(row, col));
+        }
+        return new int[]{row, col};
+    }
+
+    // Текст результата выстрела; для потопленного корабля добавляем его длину и клетки
+    static String shotText(GameService game, GameService.ShotResult result) {
+        String text = resultToText(result);
+        if (result == GameService.ShotResult.SUNK) {
+            text += " (" + shipToText(game.getLastSunkShip()) + ")";
+        }
+        return text;
+    }
+
+    // Например: "3-палубный, B2-B4"
+    static String shipToText(GameService.Ship ship) {
+        int last = ship.getLength() - 1;
+        String cells = GameRules.coordToString(ship.getRow(), ship.getCol());
+        if (last > 0) {
+            cells += "-" + GameRules.coordToString(ship.cellRow(last), ship.cellCol(last));
+        }
+        return ship.getLength() + "-палубный, " + cells;
+    }
+
+    static String resultToText(GameService.ShotResult result) {
+        switch (result) {
+            case MISS:
+                return "Мимо";
+            case HIT:
+                return "Попадание";
+            case SUNK:
+                return "Корабль потоплен";
+            case ALREADY_SHOT:
+                return "Сюда уже стреляли";
+            case INVALID:
+                return "Неверный ход";
+            default:
+                return result.toString();
+        }
+    }
+}
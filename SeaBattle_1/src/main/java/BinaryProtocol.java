@@ -0,0 +1,245 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Компактный двоичный протокол – альтернатива текстовому протоколу Action.
+ *
+ * Кадр: [длина: 2 байта][код: 1 байт = Action.ordinal()][данные], длина считает код и данные.
+ *  MESSAGE   – текст в UTF-8
+ *  BOARD     – [размер поля n][своё поле и поле выстрелов, по 2 бита на клетку (CELLS)]
+ *  YOUR_TURN – без данных
+ *  GAME_OVER – [победитель: 1 байт][текст в UTF-8]
+ *  SHOT      – [row][col]
+ *  CELL      – [поле: 0 своё / 1 выстрелы][row][col][код клетки]
+ *  SUNK      – [поле][row первой палубы][col][длина][1 – горизонтально]
+ *
+ * Координаты – по байту, так что поле может быть любым до GameRules.MAX_SIZE.
+ *
+ * Поле целиком (BOARD) уходит один раз, дальше после каждого выстрела – только CELL
+ * (и SUNK, если корабль потоплен): клиент ведёт свою копию полей и рисует их сам.
+ *
+ * Переход: получив в текстовом режиме YOUR_TURN, клиент отвечает строкой HELLO
+ * и дальше обе стороны говорят только кадрами. Сервер до ответа клиента ему
+ * ничего не пишет, поэтому точка переключения у сторон совпадает.
+ */
+public final class BinaryProtocol {
+
+    public static final String HELLO = "PROTO BINARY";
+
+    // код клетки – индекс в этой строке
+    static final String CELLS = "~OX*";
+
+    // Текстовые строки (в том числе HELLO) идут в кодировке по умолчанию, как у BattleshipClient
+    static final Charset TEXT_CHARSET = Charset.defaultCharset();
+
+    private static final int MAX_FRAME = 0xFFFF;
+
+    private BinaryProtocol() {
+    }
+
+    public static byte[] message(String text) {
+        return frame(Action.MESSAGE, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] board(GameService game, int playerId) {
+        int size = game.getRules().getSize();
+        byte[] payload = new byte[1 + (2 * size * size + 3) / 4];
+        payload[0] = (byte) size;
+        int i = 0;
+        for (int layer = 0; layer < 2; layer++) {
+            boolean own = layer == 0;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++, i++) {
+                    int code = CELLS.indexOf(game.cellForPlayer(playerId, own, r, c));
+                    payload[1 + (i >> 2)] |= (byte) (code << ((i & 3) * 2));
+                }
+            }
+        }
+        return frame(Action.BOARD, payload);
+    }
+
+    /**
+     * Изменения после выстрела shooter по (row, col) глазами игрока playerId:
+     * CELL, а при потоплении ещё и SUNK.
+     */
+    public static byte[] shotUpdate(GameService game, int playerId, int shooter, int row, int col,
+                                    GameService.ShotResult result) {
+        boolean own = shooter != playerId;
+        int layer = own ? 0 : 1;
+        int code = CELLS.indexOf(game.cellForPlayer(playerId, own, row, col));
+        byte[] cell = frame(Action.CELL, new byte[]{(byte) layer, (byte) row, (byte) col, (byte) code});
+        if (result != GameService.ShotResult.SUNK) return cell;
+
+        GameService.Ship ship = game.getLastSunkShip();
+        byte[] sunk = frame(Action.SUNK, new byte[]{
+                (byte) layer,
+                (byte) ship.getRow(),
+                (byte) ship.getCol(),
+                (byte) ship.getLength(),
+                (byte) (ship.isHorizontal() ? 1 : 0)});
+        byte[] both = new byte[cell.length + sunk.length];
+        System.arraycopy(cell, 0, both, 0, cell.length);
+        System.arraycopy(sunk, 0, both, cell.length, sunk.length);
+        return both;
+    }
+
+    public static byte[] yourTurn() {
+        return frame(Action.YOUR_TURN, new byte[0]);
+    }
+
+    public static byte[] gameOver(int winner, String text) {
+        byte[] utf = text.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[utf.length + 1];
+        payload[0] = (byte) winner;
+        System.arraycopy(utf, 0, payload, 1, utf.length);
+        return frame(Action.GAME_OVER, payload);
+    }
+
+    public static byte[] shot(int row, int col) {
+        return frame(Action.SHOT, new byte[]{(byte) row, (byte) col});
+    }
+
+    private static byte[] frame(Action action, byte[] payload) {
+        int length = payload.length + 1;
+        if (length > MAX_FRAME) throw new IllegalArgumentException("Слишком большой кадр: " + length);
+        byte[] frame = new byte[length + 2];
+        frame[0] = (byte) (length >>> 8);
+        frame[1] = (byte) length;
+        frame[2] = (byte) action.ordinal();
+        System.arraycopy(payload, 0, frame, 3, payload.length);
+        return frame;
+    }
+
+    /**
+     * Разобранный кадр.
+     */
+    public static final class Frame {
+        public final Action action;
+        public final byte[] payload;
+
+        Frame(Action action, byte[] payload) {
+            this.action = action;
+            this.payload = payload;
+        }
+
+        public String text() {
+            int from = action == Action.GAME_OVER ? 1 : 0;
+            return new String(payload, from, payload.length - from, StandardCharsets.UTF_8);
+        }
+
+        public int winner() {
+            return payload[0];
+        }
+
+        // Выстрел в виде текстовой команды: "SHOT A0"
+        public String toCommand() {
+            return "SHOT " + GameRules.coordToString(payload[0] & 0xFF, payload[1] & 0xFF);
+        }
+
+        // Применяет CELL к полям клиента
+        public void applyCell(char[][] own, char[][] shots) {
+            char[][] board = payload[0] == 0 ? own : shots;
+            board[payload[1] & 0xFF][payload[2] & 0xFF] = CELLS.charAt(payload[3] & 3);
+        }
+
+        // Корабль из SUNK
+        public GameService.Ship sunkShip() {
+            return new GameService.Ship(payload[1] & 0xFF, payload[2] & 0xFF, payload[3] & 0xFF, payload[4] == 1);
+        }
+
+        // SUNK относится к своему полю (а не к выстрелам по противнику)?
+        public boolean isOwnBoard() {
+            return payload[0] == 0;
+        }
+
+        // Размер поля из BOARD
+        public int boardSize() {
+            return payload[0] & 0xFF;
+        }
+
+        // Раскладывает BOARD по двум полям boardSize() × boardSize()
+        public void decodeBoard(char[][] own, char[][] shots) {
+            int size = boardSize();
+            for (int i = 0; i < 2 * size * size; i++) {
+                char ch = CELLS.charAt((payload[1 + (i >> 2)] >> ((i & 3) * 2)) & 3);
+                int cell = i % (size * size);
+                char[][] board = i < size * size ? own : shots;
+                board[cell / size][cell % size] = ch;
+            }
+        }
+    }
+
+    // Кадр из потока или null в конце потока
+    public static Frame readFrame(DataInputStream in) throws IOException {
+        int hi = in.read();
+        if (hi == -1) return null;
+        int length = (hi << 8) | in.readUnsignedByte();
+        if (length < 1) throw new IOException("Пустой кадр");
+        return decode(in.readUnsignedByte(), readFully(in, length - 1));
+    }
+
+    /**
+     * Кадр из уже прочитанных байт: code – байт кода, payload – остальное.
+     * Длина данных проверяется по коду, чтобы методы Frame не вышли за массив:
+     * испорченный кадр – это IOException, и отключается только приславший его.
+     */
+    static Frame decode(int code, byte[] payload) throws IOException {
+        Action[] actions = Action.values();
+        if (code >= actions.length) throw new IOException("Неизвестный код кадра: " + code);
+        Action action = actions[code];
+        int expected = payloadLength(action, payload);
+        if (expected >= 0 ? payload.length != expected : payload.length < -expected - 1) {
+            throw new IOException("Неверная длина кадра " + action + ": " + payload.length);
+        }
+        return new Frame(action, payload);
+    }
+
+    // Точная длина данных кадра или -(минимальная длина + 1) для кадров с текстом
+    private static int payloadLength(Action action, byte[] payload) {
+        switch (action) {
+            case SHOT:
+                return 2;
+            case CELL:
+                return 4;
+            case SUNK:
+                return 5;
+            case YOUR_TURN:
+            case NOT_MODIFIED:
+                return 0;
+            case GAME_OVER:
+                return -2;
+            case BOARD:
+                if (payload.length == 0) return 1;
+                int size = payload[0] & 0xFF;
+                return 1 + (2 * size * size + 3) / 4;
+            default:
+                return -1;
+        }
+    }
+
+    private static byte[] readFully(DataInputStream in, int n) throws IOException {
+        byte[] data = new byte[n];
+        in.readFully(data);
+        return data;
+    }
+
+    /**
+     * Строка текстового режима, прочитанная побайтно: после неё в том же потоке
+     * могут идти кадры, поэтому Reader с собственным буфером тут не годится.
+     */
+    public static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') break;
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) return null;
+        String text = new String(line.toByteArray(), TEXT_CHARSET);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+}
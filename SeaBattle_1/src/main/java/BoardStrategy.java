@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Общая часть стратегий: что игрок знает о поле противника.
+ *
+ * Знания хранятся битовыми масками, по long на строку (бит col – клетка (row, col)), как
+ * в BitboardGameService, поэтому разбор хода – несколько сдвигов и AND на строку:
+ *  - shot  – клетки, куда уже стреляли;
+ *  - open  – попадания в ещё не потопленные корабли;
+ *  - empty – клетки, где палубы точно нет: промахи, потопленные корабли с соседними
+ *            клетками и диагональные соседи попаданий (корабли прямые и не касаются друг друга).
+ */
+abstract class BoardStrategy implements Strategy {
+
+    protected final GameRules rules;
+    protected final int size;
+    protected final SplittableRandom random;
+
+    protected final long[] shot;
+    protected final long[] open;
+    protected final long[] empty;
+    // alive[len] – сколько кораблей длины len ещё на плаву
+    protected final int[] alive;
+    protected int openCount = 0;
+
+    // рабочая маска для выбора клетки, чтобы ход не выделял память
+    protected final long[] candidates;
+
+    // биты всех столбцов
+    private final long all;
+
+    BoardStrategy(GameRules rules, long seed) {
+        this.rules = rules;
+        this.size = rules.getSize();
+        this.random = new SplittableRandom(seed);
+        this.all = size == 64 ? -1L : (1L << size) - 1;
+        this.shot = new long[size];
+        this.open = new long[size];
+        this.empty = new long[size];
+        this.candidates = new long[size];
+        int longest = 0;
+        for (int len : rules.getFleet()) {
+            longest = Math.max(longest, len);
+        }
+        this.alive = new int[longest + 1];
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(shot, 0L);
+        Arrays.fill(open, 0L);
+        Arrays.fill(empty, 0L);
+        Arrays.fill(alive, 0);
+        for (int len : rules.getFleet()) {
+            alive[len]++;
+        }
+        openCount = 0;
+    }
+
+    @Override
+    public void onResult(int row, int col, GameService.ShotResult result, GameService.Ship sunk) {
+        long bit = 1L << col;
+        shot[row] |= bit;
+        switch (result) {
+            case MISS:
+                empty[row] |= bit;
+                break;
+            case HIT:
+                open[row] |= bit;
+                openCount++;
+                markDiagonals(row, bit);
+                break;
+            case SUNK:
+                markDiagonals(row, bit);
+                markSunk(sunk);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Клетки строки row, где ещё может быть палуба живого корабля:
+     * не пустые и либо не обстрелянные, либо попадания в недобитый корабль.
+     */
+    protected long free(int row) {
+        return all & ~empty[row] & (~shot[row] | open[row]);
+    }
+
+    /**
+     * Клетки строки row, куда есть смысл стрелять: не обстрелянные и не пустые.
+     */
+    protected long targets(int row) {
+        return all & ~empty[row] & ~shot[row];
+    }
+
+    /**
+     * Случайная клетка из масок candidates (по long на строку); -1 – маски пусты.
+     */
+    protected int randomCell(long[] candidates) {
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            count += Long.bitCount(candidates[r]);
+        }
+        if (count == 0) {
+            return -1;
+        }
+        int k = random.nextInt(count);
+        for (int r = 0; r < size; r++) {
+            int inRow = Long.bitCount(candidates[r]);
+            if (k >= inRow) {
+                k -= inRow;
+                continue;
+            }
+            long bits = candidates[r];
+            for (int i = 0; i < k; i++) {
+                bits &= bits - 1;
+            }
+            return r * size + Long.numberOfTrailingZeros(bits);
+        }
+        throw new IllegalStateException("Клетка " + k + " не найдена");
+    }
+
+    /**
+     * Случайная клетка, куда ещё не стреляли, без учёта остальных знаний.
+     */
+    protected int anyUnshotCell() {
+        for (int r = 0; r < size; r++) {
+            candidates[r] = all & ~shot[r];
+        }
+        int cell = randomCell(candidates);
+        if (cell < 0) {
+            throw new IllegalStateException("Стрелять больше некуда");
+        }
+        return cell;
+    }
+
+    // Длина самого короткого корабля на плаву (0 – флот потоплен)
+    protected int shortestAlive() {
+        for (int len = 1; len < alive.length; len++) {
+            if (alive[len] > 0) {
+                return len;
+            }
+        }
+        return 0;
+    }
+
+    // Диагональные соседи попадания: там палубы быть не может
+    private void markDiagonals(int row, long bit) {
+        long sides = ((bit << 1) | (bit >>> 1)) & all;
+        if (row > 0) {
+            empty[row - 1] |= sides;
+        }
+        if (row + 1 < size) {
+            empty[row + 1] |= sides;
+        }
+    }
+
+    // Потопленный корабль и клетки вокруг – пустые, его попадания больше не «открыты»
+    private void markSunk(GameService.Ship ship) {
+        int len = ship.getLength();
+        int lastRow = ship.cellRow(len - 1);
+        int lastCol = ship.cellCol(len - 1);
+        int from = Math.max(ship.getCol() - 1, 0);
+        int to = Math.min(lastCol + 1, size - 1);
+        long ring = (to - from + 1 == 64 ? -1L : ((1L << (to - from + 1)) - 1) << from);
+        for (int r = Math.max(ship.getRow() - 1, 0); r <= Math.min(lastRow + 1, size - 1); r++) {
+            empty[r] |= ring;
+        }
+        for (int i = 0; i < len; i++) {
+            long bit = 1L << ship.cellCol(i);
+            int r = ship.cellRow(i);
+            if ((open[r] & bit) != 0) {
+                open[r] &= ~bit;
+                openCount--;
+            }
+        }
+        if (len < alive.length && alive[len] > 0) {
+            alive[len]--;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Текстовая разметка поля size×size, одна на сервер и клиента:
+ *
+ *    0 1 2 ...
+ * A  ~ O X ...
+ *
+ * Для поля больше 10 или 26 строк столбцы и подписи строк шире, но клетка каждой
+ * строки всегда стоит на одном и том же месте – это нужно кэшу отрисовки в GameServiceImpl.
+ */
+final class BoardText {
+
+    // разметка неизменяема, поэтому одна на размер поля; гонка при первом обращении лишь соберёт её дважды
+    private static final BoardText[] SHARED = new BoardText[GameRules.MAX_SIZE + 1];
+
+    private final int size;
+    private final int labelWidth; // подпись строки: "A" или "AB"
+    private final int cellWidth;  // символ клетки и пробелы до следующей
+
+    // шапка и подписи строк с отступами не меняются – собираем их один раз
+    private final String header;
+    private final String[] rowStarts;
+
+    static BoardText of(int size) {
+        BoardText text = SHARED[size];
+        if (text == null) {
+            text = new BoardText(size);
+            SHARED[size] = text;
+        }
+        return text;
+    }
+
+    private BoardText(int size) {
+        this.size = size;
+        this.labelWidth = GameRules.rowName(size - 1).length();
+        this.cellWidth = String.valueOf(size - 1).length() + 1;
+
+        StringBuilder sb = new StringBuilder();
+        pad(sb, labelWidth + 2);
+        for (int c = 0; c < size; c++) {
+            String number = String.valueOf(c);
+            sb.append(number);
+            pad(sb, cellWidth - number.length());
+        }
+        sb.append('\n');
+        this.header = sb.toString();
+
+        this.rowStarts = new String[size];
+        for (int r = 0; r < size; r++) {
+            sb.setLength(0);
+            String name = GameRules.rowName(r);
+            sb.append(name);
+            pad(sb, labelWidth - name.length() + 2);
+            rowStarts[r] = sb.toString();
+        }
+    }
+
+    // Длина строки поля вместе с '\n'; шапка с номерами столбцов той же длины
+    int rowLength() {
+        return labelWidth + 2 + size * cellWidth + 1;
+    }
+
+    /**
+     * Смещение клетки (row, col) от начала шапки.
+     */
+    int cellOffset(int row, int col) {
+        return rowLength() * (row + 1) + labelWidth + 2 + col * cellWidth;
+    }
+
+    void appendHeader(StringBuilder sb) {
+        sb.append(header);
+    }
+
+    // Подпись строки с отступом; дальше идут appendCell и '\n'
+    void appendRowStart(StringBuilder sb, int row) {
+        sb.append(rowStarts[row]);
+    }
+
+    void appendCell(StringBuilder sb, char ch) {
+        sb.append(ch);
+        for (int i = 1; i < cellWidth; i++) sb.append(' ');
+    }
+
+    private static void pad(StringBuilder sb, int spaces) {
+        for (int i = 0; i < spaces; i++) sb.append(' ');
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * Карта вероятностей.
+ *
+ * Перебираются все положения каждого живого корабля, которые не противоречат известному:
+ * не задевают промахи, потопленные корабли с их соседями и диагонали попаданий. Каждое
+ * положение добавляет свой вес ко всем своим клеткам, и выстрел идёт в клетку с наибольшей
+ * суммой (из равных – в случайную). Пока есть раненые корабли, считаются только положения,
+ * накрывающие попадания, и чем больше попаданий накрыто, тем больше вес.
+ *
+ * Допустимые начала корабля в строке находятся сдвигами и AND масок, как в FleetPlacer,
+ * так что ход на поле 10×10 – несколько тысяч сложений, без выделения памяти.
+ */
+final class DensityStrategy extends BoardStrategy {
+
+    // сумма весов положений, накрывающих клетку row * size + col
+    private final int[] density;
+    private final long[] rowFree;
+
+    DensityStrategy(GameRules rules, long seed) {
+        super(rules, seed);
+        this.density = new int[size * size];
+        this.rowFree = new long[size];
+    }
+
+    @Override
+    public int nextShot() {
+        int cell = best(openCount > 0);
+        if (cell < 0 && openCount > 0) {
+            // ни одно положение не объясняет попадания – считаем, будто раненых нет
+            cell = best(false);
+        }
+        return cell >= 0 ? cell : anyUnshotCell();
+    }
+
+    // Клетка с наибольшей суммой весов; -1 – ни одного положения
+    private int best(boolean target) {
+        Arrays.fill(density, 0);
+        for (int r = 0; r < size; r++) {
+            rowFree[r] = free(r);
+        }
+
+        for (int len = 1; len < alive.length; len++) {
+            if (alive[len] == 0) {
+                continue;
+            }
+            long span = len == 64 ? -1L : (1L << len) - 1;
+            for (int r = 0; r < size; r++) {
+                long f = rowFree[r];
+
+                // по горизонтали: бит c – свободны клетки c .. c + len - 1
+                long starts = f;
+                for (int i = 1; i < len; i++) {
+                    starts &= f >>> i;
+                }
+                for (long bits = starts; bits != 0; bits &= bits - 1) {
+                    int c = Long.numberOfTrailingZeros(bits);
+                    int covered = Long.bitCount(open[r] & (span << c));
+                    if (target && covered == 0) {
+                        continue;
+                    }
+                    int weight = alive[len] * (1 + covered * covered);
+                    int first = r * size + c;
+                    for (int i = 0; i < len; i++) {
+                        density[first + i] += weight;
+                    }
+                }
+
+                // по вертикали (однопалубный уже учтён)
+                if (len == 1 || r + len > size) {
+                    continue;
+                }
+                starts = f;
+                for (int i = 1; i < len; i++) {
+                    starts &= rowFree[r + i];
+                }
+                for (long bits = starts; bits != 0; bits &= bits - 1) {
+                    int c = Long.numberOfTrailingZeros(bits);
+                    long bit = 1L << c;
+                    int covered = 0;
+                    for (int i = 0; i < len; i++) {
+                        if ((open[r + i] & bit) != 0) {
+                            covered++;
+                        }
+                    }
+                    if (target && covered == 0) {
+                        continue;
+                    }
+                    int weight = alive[len] * (1 + covered * covered);
+                    for (int i = 0; i < len; i++) {
+                        density[(r + i) * size + c] += weight;
+                    }
+                }
+            }
+        }
+
+        int best = -1;
+        int bestDensity = 0;
+        int ties = 0;
+        for (int r = 0; r < size; r++) {
+            for (long bits = targets(r); bits != 0; bits &= bits - 1) {
+                int cell = r * size + Long.numberOfTrailingZeros(bits);
+                int d = density[cell];
+                if (d > bestDensity) {
+                    best = cell;
+                    bestDensity = d;
+                    ties = 1;
+                } else if (d == bestDensity && d > 0 && random.nextInt(++ties) == 0) {
+                    best = cell;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запас движков закончившихся партий, чтобы новая партия не выделяла заново все массивы поля.
+ *
+ * acquire берёт движок из запаса и начинает на нём новую партию (GameServiceImpl.reset);
+ * если запас пуст, создаёт новый движок – это считается промахом. release возвращает движок
+ * после конца партии; если запас полон, движок просто достаётся сборщику мусора, так что
+ * запас не держит больше capacity движков, сколько бы партий ни шло одновременно.
+ * Попадания и промахи всех пулов видны в Metrics (engine_pool_total{result="hit"|"miss"}).
+ *
+ * Вернуть движок можно только тогда, когда партия им больше не пользуется:
+ * после release его получит следующая партия.
+ */
+final class EnginePool {
+
+    private static final int SHARED_CAPACITY = 256;
+
+    // общие пулы – по одному на правила
+    private static final ConcurrentMap<GameRules, EnginePool> SHARED = new ConcurrentHashMap<>();
+
+    private static final LongAdder HITS = Metrics.get().counter("engine_pool_total{result=\"hit\"}");
+    private static final LongAdder MISSES = Metrics.get().counter("engine_pool_total{result=\"miss\"}");
+
+    private final GameRules rules;
+    private final BlockingQueue<GameServiceImpl> queue;
+
+    EnginePool(int capacity, GameRules rules) {
+        this.rules = rules;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Общий пул для этих правил.
+     */
+    static EnginePool of(GameRules rules) {
+        return SHARED.computeIfAbsent(rules, r -> new EnginePool(SHARED_CAPACITY, r));
+    }
+
+    /**
+     * Движок с новой партией на расстановках first и second.
+     */
+    GameServiceImpl acquire(FleetLayout first, FleetLayout second) {
+        GameServiceImpl engine = queue.poll();
+        if (engine == null) {
+            MISSES.increment();
+            return new GameServiceImpl(rules, first, second);
+        }
+        HITS.increment();
+        engine.reset(first, second);
+        return engine;
+    }
+
+    /**
+     * Движок с новой партией, флоты которой получены из seed.
+     */
+    GameServiceImpl acquire(long seed) {
+        GameServiceImpl engine = queue.poll();
+        if (engine == null) {
+            MISSES.increment();
+            return new GameServiceImpl(rules, seed);
+        }
+        HITS.increment();
+        engine.reset(seed);
+        return engine;
+    }
+
+    /**
+     * Возвращает движок закончившейся партии.
+     */
+    void release(GameServiceImpl engine) {
+        if (engine.getRules().equals(rules)) {
+            queue.offer(engine);
+        }
+    }
+
+    // Попадания и промахи всех пулов с запуска процесса
+    static long getHits() {
+        return HITS.sum();
+    }
+
+    static long getMisses() {
+        return MISSES.sum();
+    }
+
+    // Сколько движков сейчас в запасе
+    int available() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,107 @@
+public interface GameService {
+
+    enum ShotResult {
+        MISS,
+        HIT,
+        SUNK,
+        ALREADY_SHOT,
+        INVALID
+    }
+
+    /**
+     * Корабль: первая (верхняя левая) клетка, длина и ориентация.
+     */
+    final class Ship {
+        private final int row;
+        private final int col;
+        private final int length;
+        private final boolean horizontal;
+
+        public Ship(int row, int col, int length, boolean horizontal) {
+            this.row = row;
+            this.col = col;
+            this.length = length;
+            this.horizontal = horizontal;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public boolean isHorizontal() {
+            return horizontal;
+        }
+
+        /**
+         * Строка i-й палубы (0 <= i < length).
+         */
+        public int cellRow(int i) {
+            return horizontal ? row : row + i;
+        }
+
+        /**
+         * Столбец i-й палубы (0 <= i < length).
+         */
+        public int cellCol(int i) {
+            return horizontal ? col + i : col;
+        }
+    }
+
+    /**
+     * Выстрел игрока playerId (1 или 2) по клетке row, col.
+     */
+    ShotResult shoot(int playerId, int row, int col);
+
+    /**
+     * Можно ли стрелять в эту клетку (игрок сюда ещё не стрелял и координата валидна).
+     */
+    boolean canShoot(int playerId, int row, int col);
+
+    /**
+     * Игра закончена?
+     */
+    boolean isGameOver();
+
+    /**
+     * Победитель: 0 – ещё нет, 1 или 2 – игрок.
+     */
+    int getWinner();
+
+    /**
+     * Правила партии: размер поля и флот.
+     */
+    GameRules getRules();
+
+    /**
+     * Строковое представление досок для игрока:
+     *  - его поле с кораблями и попаданиями/промахами противника
+     *  - его выстрелы по противнику.
+     */
+    String boardForPlayer(int playerId);
+
+    /**
+     * Клетка, как её видит игрок playerId: '~', 'O', 'X' или '*'.
+     * own = true – его поле с кораблями, false – его выстрелы по противнику.
+     */
+    char cellForPlayer(int playerId, boolean own, int row, int col);
+
+    /**
+     * Корабль, потопленный последним выстрелом с результатом SUNK, или null.
+     */
+    Ship getLastSunkShip();
+
+    /**
+     * Номер состояния партии: растёт с каждым принятым выстрелом (и с новой партией
+     * на том же движке) и никогда не уменьшается. Пока он прежний, boardForPlayer
+     * возвращает тот же текст, так что клиенту, знающему номер, поле можно не пересылать.
+     */
+    long getVersion();
+}
@@ -0,0 +1,337 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Движок на символьных матрицах. Размер поля и флот задаются правилами (GameRules),
+ * но память и отрисовка растут как size²; для больших полей лучше BitboardGameService.
+ */
+public class GameServiceImpl implements GameService {
+
+    private static final String RULE = "====================================\n";
+    private static final String OWN_TITLE = "Ваши корабли:\n";
+    private static final String SHOTS_TITLE = "\nВаши выстрелы по противнику:\n";
+    private static final String LEGEND = "\nЛегенда: O – корабль, X – попадание, * – промах, ~ – вода\n";
+
+    private final GameRules rules;
+    private final int size;
+
+    // Разметка boardForPlayer и где в ней начинаются оба поля (с шапкой)
+    private final BoardText text;
+    private final int ownStart;
+    private final int shotsStart;
+
+    // [playerIndex][row][col]
+    private final char[][][] shipBoards; // свои корабли (+ попадания/промахи врага)
+    private final char[][][] shotBoards; // выстрелы по врагу
+
+    private final int[] cellsLeft = new int[2]; // сколько палуб осталось у каждого игрока
+
+    // номер корабля в каждой клетке (-1 – корабля нет) и живые палубы каждого корабля
+    private final short[][][] shipIds;
+    private final int[][] decksLeft;
+
+    // позиции кораблей – только для отчёта о потопленном корабле
+    private final int[][] shipRows;
+    private final int[][] shipCols;
+    private final boolean[][] shipHorizontal;
+
+    private int lastSunkPlayer = -1;
+    private int lastSunkShip = -1;
+
+    // см. getVersion; reset его не обнуляет, а увеличивает
+    private long version = 0;
+
+    // Готовый текст boardForPlayer для каждого игрока: shoot меняет в нём одну клетку,
+    // строка собирается заново, только если с прошлого вызова что-то изменилось
+    private final char[][] rendered = new char[2][];
+    private final String[] renderedText = new String[2];
+
+    // для reset(seed); создаётся при первом таком reset
+    private FleetPlacer placer;
+
+    public GameServiceImpl() {
+        this(GameRules.STANDARD);
+    }
+
+    // Фиксированный seed даёт одинаковую расстановку флота (нужно для сравнения движков)
+    public GameServiceImpl(long seed) {
+        this(GameRules.STANDARD, seed);
+    }
+
+    public GameServiceImpl(GameRules rules) {
+        this(rules, ThreadLocalRandom.current().nextLong());
+    }
+
+    public GameServiceImpl(GameRules rules, long seed) {
+        this(rules, new SplittableRandom(seed));
+    }
+
+    // seed обоих флотов берутся из random
+    public GameServiceImpl(GameRules rules, SplittableRandom random) {
+        this(rules, new FleetPlacer(rules), random);
+    }
+
+    private GameServiceImpl(GameRules rules, FleetPlacer placer, SplittableRandom random) {
+        this(rules, placer.place(random.nextLong()), placer.place(random.nextLong()));
+    }
+
+    /**
+     * Партия с готовыми расстановками (например, из FleetPool): флот не расставляется заново.
+     */
+    public GameServiceImpl(GameRules rules, FleetLayout first, FleetLayout second) {
+        this.rules = rules;
+        this.size = rules.getSize();
+        int ships = rules.shipCount();
+
+        text = BoardText.of(size);
+        ownStart = RULE.length() + OWN_TITLE.length();
+        shotsStart = ownStart + (size + 1) * text.rowLength() + SHOTS_TITLE.length();
+
+        shipBoards = new char[2][size][size];
+        shotBoards = new char[2][size][size];
+        shipIds = new short[2][size][size];
+        decksLeft = new int[2][ships];
+        shipRows = new int[2][ships];
+        shipCols = new int[2][ships];
+        shipHorizontal = new boolean[2][ships];
+
+        initBoards();
+        placeFleet(0, first);  // Игрок 1
+        placeFleet(1, second); // Игрок 2
+        for (int p = 0; p < 2; p++) {
+            rendered[p] = renderFull(p + 1).toCharArray();
+        }
+    }
+
+    /**
+     * Новая партия на тех же массивах: поле очищается, флоты ставятся по first и second.
+     * Ничего не выделяет, поэтому один движок может сыграть подряд сколько угодно партий
+     * (например, в SelfPlay или через EnginePool). Правила остаются прежними.
+     */
+    public void reset(FleetLayout first, FleetLayout second) {
+        initBoards();
+        placeFleet(0, first);
+        placeFleet(1, second);
+        restart();
+    }
+
+    /**
+     * Новая партия с флотами из seed – те же, что у new GameServiceImpl(rules, seed).
+     * Флот расставляется прямо в массивы движка, без FleetLayout, так что в установившемся
+     * режиме не выделяется ничего.
+     */
+    public void reset(long seed) {
+        if (placer == null) {
+            placer = new FleetPlacer(rules);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        initBoards();
+        placer.arrange(random.nextLong());
+        placeFleet(0, placer);
+        placer.arrange(random.nextLong());
+        placeFleet(1, placer);
+        restart();
+    }
+
+    // Общий конец reset: флоты уже стоят, осталось забыть прошлую партию
+    private void restart() {
+        lastSunkPlayer = -1;
+        lastSunkShip = -1;
+        version++;
+
+        // текст поля не собираем заново, а переписываем в нём клетки
+        for (int p = 0; p < 2; p++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int offset = text.cellOffset(r, c);
+                    rendered[p][ownStart + offset] = shipBoards[p][r][c];
+                    rendered[p][shotsStart + offset] = '~';
+                }
+            }
+            renderedText[p] = null;
+        }
+    }
+
+    private void initBoards() {
+        for (int p = 0; p < 2; p++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    shipBoards[p][r][c] = '~';
+                    shotBoards[p][r][c] = '~';
+                    shipIds[p][r][c] = -1;
+                }
+            }
+        }
+    }
+
+    // Позиции выбирает FleetPlacer – за ограниченное время и без повторных попыток наугад
+    private void placeFleet(int playerIndex, FleetLayout layout) {
+        if (layout.getSize() != size || layout.shipCount() != rules.shipCount()) {
+            throw new IllegalArgumentException("Расстановка не для правил " + rules);
+        }
+        for (int s = 0; s < rules.shipCount(); s++) {
+            placeShip(playerIndex, s, layout.row(s), layout.col(s), rules.shipLength(s), layout.isHorizontal(s));
+        }
+        cellsLeft[playerIndex] = rules.getTotalDecks();
+    }
+
+    private void placeFleet(int playerIndex, FleetPlacer arranged) {
+        for (int s = 0; s < rules.shipCount(); s++) {
+            placeShip(playerIndex, s, arranged.row(s), arranged.col(s), rules.shipLength(s), arranged.isHorizontal(s));
+        }
+        cellsLeft[playerIndex] = rules.getTotalDecks();
+    }
+
+    private void placeShip(int p, int ship, int row, int col, int len, boolean horiz) {
+        int dr = horiz ? 0 : 1;
+        int dc = horiz ? 1 : 0;
+        for (int i = 0; i < len; i++) {
+            int r = row + dr * i;
+            int c = col + dc * i;
+            shipBoards[p][r][c] = 'O';
+            shipIds[p][r][c] = (short) ship;
+        }
+        decksLeft[p][ship] = len;
+        shipRows[p][ship] = row;
+        shipCols[p][ship] = col;
+        shipHorizontal[p][ship] = horiz;
+    }
+
+    @Override
+    public ShotResult shoot(int playerId, int row, int col) {
+        if (playerId != 1 && playerId != 2) return ShotResult.INVALID;
+        if (row < 0 || row >= size || col < 0 || col >= size) return ShotResult.INVALID;
+
+        int shooter = playerId - 1;
+        int victim = 1 - shooter;
+
+        // проверяем только по своей матрице выстрелов
+        if (shotBoards[shooter][row][col] == 'X' || shotBoards[shooter][row][col] == '*') {
+            return ShotResult.ALREADY_SHOT;
+        }
+
+        version++;
+        char target = shipBoards[victim][row][col];
+
+        if (target == 'O') {
+            shipBoards[victim][row][col] = 'X'; // попадание на поле жертвы
+            shotBoards[shooter][row][col] = 'X'; // попадание в своей таблице выстрелов
+            cellsLeft[victim]--;
+            patchRendered(victim, ownStart, row, col, 'X');
+            patchRendered(shooter, shotsStart, row, col, 'X');
+
+            // корабль потоплен, когда у него не осталось живых палуб
+            int ship = shipIds[victim][row][col];
+            if (--decksLeft[victim][ship] == 0) {
+                lastSunkPlayer = victim;
+                lastSunkShip = ship;
+                return ShotResult.SUNK;
+            }
+            return ShotResult.HIT;
+        } else {
+            // промах: отмечаем только для красоты на поле жертвы
+            if (shipBoards[victim][row][col] == '~') {
+                shipBoards[victim][row][col] = '*'; // промах врага отображается на твоём поле
+                patchRendered(victim, ownStart, row, col, '*');
+            }
+            shotBoards[shooter][row][col] = '*';
+            patchRendered(shooter, shotsStart, row, col, '*');
+            return ShotResult.MISS;
+        }
+    }
+
+    @Override
+    public boolean canShoot(int playerId, int row, int col) {
+        if (playerId != 1 && playerId != 2) return false;
+        if (row < 0 || row >= size || col < 0 || col >= size) return false;
+        int shooter = playerId - 1;
+        char v = shotBoards[shooter][row][col];
+        return v != 'X' && v != '*';
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return cellsLeft[0] == 0 || cellsLeft[1] == 0;
+    }
+
+    @Override
+    public int getWinner() {
+        if (!isGameOver()) return 0;
+        if (cellsLeft[0] == 0 && cellsLeft[1] == 0) return 0; // теоретическая ничья
+        return cellsLeft[0] == 0 ? 2 : 1;
+    }
+
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public Ship getLastSunkShip() {
+        if (lastSunkShip < 0) return null;
+        int p = lastSunkPlayer;
+        int s = lastSunkShip;
+        return new Ship(shipRows[p][s], shipCols[p][s], rules.shipLength(s), shipHorizontal[p][s]);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public char cellForPlayer(int playerId, boolean own, int row, int col) {
+        int idx = playerId - 1;
+        return own ? shipBoards[idx][row][col] : shotBoards[idx][row][col];
+    }
+
+    /**
+     * Без выстрелов между вызовами возвращает ту же строку. Параллельные вызовы
+     * безопасны, пока никто не стреляет: в худшем случае строка соберётся дважды.
+     */
+    @Override
+    public String boardForPlayer(int playerId) {
+        int idx = playerId - 1;
+        String text = renderedText[idx];
+        if (text == null) {
+            text = new String(rendered[idx]);
+            renderedText[idx] = text;
+        }
+        return text;
+    }
+
+    private void patchRendered(int p, int start, int row, int col, char ch) {
+        rendered[p][start + text.cellOffset(row, col)] = ch;
+        renderedText[p] = null;
+    }
+
+    // Полная отрисовка с нуля – для начального текста (и для сравнения с кэшем)
+    String renderFull(int playerId) {
+        int idx = playerId - 1;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(RULE);
+        sb.append(OWN_TITLE);
+        renderBoard(sb, shipBoards[idx], true);
+        sb.append(SHOTS_TITLE);
+        renderBoard(sb, shotBoards[idx], false);
+        sb.append(LEGEND);
+        sb.append(RULE);
+        return sb.toString();
+    }
+
+    private void renderBoard(StringBuilder sb, char[][] board, boolean showShips) {
+        text.appendHeader(sb);
+        for (int r = 0; r < size; r++) {
+            text.appendRowStart(sb, r);
+            for (int c = 0; c < size; c++) {
+                char ch = board[r][c];
+                if (!showShips && ch == 'O') {
+                    ch = '~';
+                }
+                text.appendCell(sb, ch);
+            }
+            sb.append("\n");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Поиск и добивание.
+ *
+ * Пока раненых кораблей нет – поиск: случайная клетка «в шахматном порядке» с шагом
+ * в длину самого короткого живого корабля (любой такой корабль накроет хотя бы одну из них).
+ * Есть раненый – добивание: стреляем рядом с попаданием, а если попаданий в ряд уже два,
+ * то только вдоль этого ряда.
+ */
+final class HuntTargetStrategy extends BoardStrategy {
+
+    HuntTargetStrategy(GameRules rules, long seed) {
+        super(rules, seed);
+    }
+
+    @Override
+    public int nextShot() {
+        if (openCount > 0) {
+            int cell = target();
+            if (cell >= 0) {
+                return cell;
+            }
+        }
+        int cell = hunt();
+        return cell >= 0 ? cell : anyUnshotCell();
+    }
+
+    // Соседи попаданий; у попадания, уже стоящего в ряду, – только по направлению ряда
+    private int target() {
+        for (int r = 0; r < size; r++) {
+            long above = r > 0 ? open[r - 1] : 0L;
+            long below = r + 1 < size ? open[r + 1] : 0L;
+            // попадания, от которых можно идти по горизонтали (не стоят в вертикальном ряду)
+            long horizontal = open[r] & ~(above | below);
+            candidates[r] = (horizontal << 1) | (horizontal >>> 1);
+        }
+        for (int r = 0; r < size; r++) {
+            long vertical = 0L;
+            if (r > 0) {
+                vertical |= verticalSources(r - 1);
+            }
+            if (r + 1 < size) {
+                vertical |= verticalSources(r + 1);
+            }
+            candidates[r] = (candidates[r] | vertical) & targets(r);
+        }
+        return randomCell(candidates);
+    }
+
+    // Попадания строки row, от которых можно идти по вертикали (не стоят в горизонтальном ряду)
+    private long verticalSources(int row) {
+        long inRow = open[row] & ((open[row] << 1) | (open[row] >>> 1));
+        return open[row] & ~inRow;
+    }
+
+    // Шахматный поиск с шагом в длину самого короткого живого корабля
+    private int hunt() {
+        int step = Math.max(shortestAlive(), 1);
+        for (int r = 0; r < size; r++) {
+            long parity = 0L;
+            for (int c = (step - r % step) % step; c < size; c += step) {
+                parity |= 1L << c;
+            }
+            candidates[r] = parity & targets(r);
+        }
+        int cell = randomCell(candidates);
+        if (cell >= 0) {
+            return cell;
+        }
+        for (int r = 0; r < size; r++) {
+            candidates[r] = targets(r);
+        }
+        return randomCell(candidates);
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Партия двух удалённых игроков. Ничего не знает о сокетах: получает строки
+ * от игроков и отвечает через их PlayerLink.
+ *
+ * Не потокобезопасна – все вызовы одной партии должны идти из одного потока.
+ */
+public class Match {
+
+    // Метрики всех партий процесса (см. Metrics)
+    private static final LongAdder STARTED = Metrics.get().counter("games_started_total");
+    private static final LongAdder FINISHED = Metrics.get().counter("games_finished_total");
+    private static final LongAdder[] SHOTS = new LongAdder[GameService.ShotResult.values().length];
+    // от строки SHOT до отправки результата обоим игрокам
+    private static final LatencyHistogram SHOT_LATENCY = Metrics.get().histogram("shot_latency_ns");
+    // от передачи хода (промах соперника или начало партии) до выстрела нового игрока
+    private static final LatencyHistogram TURN_HANDOFF = Metrics.get().histogram("turn_handoff_ns");
+    // запросы поля "BOARD <версия>": с полем и без (поле не менялось)
+    private static final LongAdder BOARD_SENT = Metrics.get().counter("board_requests_total{result=\"sent\"}");
+    private static final LongAdder BOARD_NOT_MODIFIED = Metrics.get().counter("board_requests_total{result=\"not_modified\"}");
+
+    // номер партии в журнале событий (EventLog)
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+    static {
+        for (GameService.ShotResult result : GameService.ShotResult.values()) {
+            SHOTS[result.ordinal()] = Metrics.get().counter("shots_total{result=\"" + result + "\"}");
+        }
+        Metrics.get().gauge("active_games", () -> STARTED.sum() - FINISHED.sum());
+    }
+
+    private final int id = NEXT_ID.getAndIncrement();
+    // движок из EnginePool; после конца партии возвращается туда
+    private final GameServiceImpl game;
+    // seed расстановок и выстрелы – по ним партию можно повторить
+    private final GameRecord record;
+    private final PlayerLink[] links = new PlayerLink[2];
+
+    private int currentPlayer = 1;
+    private boolean finished = false;
+    // System.nanoTime() передачи хода; 0 – текущий игрок продолжает после попадания
+    private long handoffAt = 0;
+
+    public Match(PlayerLink first, PlayerLink second) {
+        this(GameRules.STANDARD, first, second);
+    }
+
+    public Match(GameRules rules, PlayerLink first, PlayerLink second) {
+        // расстановки берём из общего запаса: партии в лобби создаются без задержки
+        this(rules, FleetPool.of(rules), first, second);
+    }
+
+    private Match(GameRules rules, FleetPool pool, PlayerLink first, PlayerLink second) {
+        this(rules, pool.take(), pool.take(), first, second);
+    }
+
+    /**
+     * Партия с заданными расстановками – например, для повторяемого нагрузочного теста.
+     */
+    Match(GameRules rules, FleetLayout firstFleet, FleetLayout secondFleet, PlayerLink first, PlayerLink second) {
+        this.game = EnginePool.of(rules).acquire(firstFleet, secondFleet);
+        this.record = new GameRecord(rules, firstFleet, secondFleet);
+        links[0] = first;
+        links[1] = second;
+        STARTED.increment();
+    }
+
+    public void start() {
+        for (int seat = 1; seat <= 2; seat++) {
+            link(seat).sendMessage("Подключено к серверу. Соперник найден, вы – Игрок " + seat + ".");
+            link(seat).sendBoard(game, seat);
+        }
+        EventLog.get().log("game_start", "game", id, "rules", game.getRules());
+        handoffAt = System.nanoTime();
+        beginTurn();
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * Версия партии (см. GameService.getVersion) – та, что уходит с текстовым полем клиентам,
+     * которые запрашивали поле с версией.
+     */
+    public long getVersion() {
+        return game.getVersion();
+    }
+
+    /**
+     * Строка от игрока seat. Запрос поля "BOARD &lt;версия&gt;" принимается от любого игрока,
+     * из остального – только выстрел игрока, чей сейчас ход; всё прочее игнорируется.
+     */
+    public void onLine(int seat, String line) {
+        if (finished) return;
+
+        long start = System.nanoTime();
+        line = line.trim();
+        long known = knownVersion(line);
+        if (known != NOT_BOARD_REQUEST) {
+            sendBoard(link(seat), game, seat, known);
+            return;
+        }
+        if (seat != currentPlayer) return;
+        if (!line.startsWith("SHOT ")) {
+            // Непонятная команда — игнорируем
+            return;
+        }
+
+        PlayerLink shooter = link(seat);
+        PlayerLink victim = link(3 - seat);
+
+        int[] rc = game.getRules().parseCoord(line.substring(5));
+        if (rc == null) {
+            shooter.sendMessage("Неверный формат координаты. Используйте, например, A0.");
+            shooter.sendYourTurn();
+            return;
+        }
+
+        int row = rc[0];
+        int col = rc[1];
+
+        if (!game.canShoot(seat, row, col)) {
+            shooter.sendMessage("В эту клетку уже стреляли или она вне поля. Попробуйте снова.");
+            shooter.sendYourTurn();
+            return;
+        }
+
+        if (handoffAt != 0) {
+            TURN_HANDOFF.record(start - handoffAt);
+            handoffAt = 0;
+        }
+        GameService.ShotResult result = game.shoot(seat, row, col);
+        record.addShot(seat, row, col);
+        SHOTS[result.ordinal()].increment();
+        String coordStr = GameRules.coordToString(row, col);
+        String resText = BattleshipServer.shotText(game, result);
+
+        shooter.sendMessage("Вы стреляли по " + coordStr + " -> " + resText);
+        shooter.sendShot(game, seat, seat, row, col, result);
+        victim.sendMessage("Противник стрелял по " + coordStr + " -> " + resText);
+        victim.sendShot(game, 3 - seat, seat, row, col, result);
+
+        if (game.isGameOver()) {
+            finish(game.getWinner());
+            SHOT_LATENCY.record(System.nanoTime() - start);
+            return;
+        }
+
+        if (result == GameService.ShotResult.MISS) {
+            currentPlayer = 3 - seat;
+            handoffAt = System.nanoTime();
+        }
+        beginTurn();
+        SHOT_LATENCY.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Игрок seat отключился: если игра ещё шла, победа достаётся сопернику.
+     */
+    public void onDisconnect(int seat) {
+        if (finished) return;
+        link(3 - seat).sendMessage("Противник отключился.");
+        finish(3 - seat);
+    }
+
+    // knownVersion для строки, которая не запрос поля
+    static final long NOT_BOARD_REQUEST = Long.MIN_VALUE;
+
+    /**
+     * Версия из запроса поля "BOARD &lt;версия&gt;" (просто "BOARD" или непонятная версия – -1,
+     * то есть поле нужно в любом случае); NOT_BOARD_REQUEST – строка не запрос поля.
+     */
+    static long knownVersion(String line) {
+        if (!line.startsWith(Action.BOARD.name())) return NOT_BOARD_REQUEST;
+        String rest = line.substring(Action.BOARD.name().length()).trim();
+        try {
+            return rest.isEmpty() ? -1 : Long.parseLong(rest);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Ответ на запрос поля: пока версия движка равна версии клиента, поле не изменилось,
+     * и вместо него (несколько сотен байт текста) уходит NOT_MODIFIED.
+     */
+    static void sendBoard(PlayerLink link, GameService game, int playerId, long knownVersion) {
+        link.enableVersions();
+        if (game.getVersion() == knownVersion) {
+            BOARD_NOT_MODIFIED.increment();
+            link.sendNotModified(knownVersion);
+        } else {
+            BOARD_SENT.increment();
+            link.sendBoard(game, playerId);
+        }
+    }
+
+    private void beginTurn() {
+        link(currentPlayer).sendMessage("\n--- Ваш ход (Игрок " + currentPlayer + ") ---");
+        link(currentPlayer).sendYourTurn();
+        link(3 - currentPlayer).sendMessage("Ход противника...");
+    }
+
+    private void finish(int winner) {
+        finished = true;
+        FINISHED.increment();
+        for (int seat = 1; seat <= 2; seat++) {
+            String text = winner == seat
+                    ? "Игра окончена. Вы победили."
+                    : "Игра окончена. Победил противник.";
+            link(seat).sendGameOver(winner == seat ? 2 : 1, text);
+            link(seat).close();
+        }
+        // по записи партию можно повторить: java GameRecord "запись"
+        EventLog.get().log("game_over", "game", id, "winner", winner,
+                "shots", record.getShotCount(), "record", record);
+        // дальше партия движок не трогает: onLine и onDisconnect после конца ничего не делают
+        EnginePool.of(game.getRules()).release(game);
+    }
+
+    private PlayerLink link(int seat) {
+        return links[seat - 1];
+    }
+}
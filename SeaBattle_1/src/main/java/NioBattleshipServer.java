@@ -0,0 +1,447 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Неблокирующий сервер: принимает сколько угодно клиентов, сводит их попарно в партии
+ * и обслуживает все партии несколькими потоками с Selector.
+ *
+ * Оба игрока – удалённые BattleshipClient, протокол тот же (Action).
+ * Запуск: java NioBattleshipServer [порт] [число потоков] [правила, например 16:5,4,4,3,3,2,2,1,1] [порт метрик]
+ * (с портом метрик Metrics отдаются по http://хост:порт/metrics).
+ */
+public class NioBattleshipServer {
+
+    private static final int DEFAULT_PORT = 5000;
+    // строка длиннее этого – явно не команда клиента
+    private static final int MAX_LINE = 1024;
+
+    // BattleshipClient читает и пишет в кодировке по умолчанию
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private final int port;
+    private final GameRules rules;
+    private final EventLoop[] loops;
+    private int nextLoop = 0;
+
+    // принятый клиент, для которого ещё нет соперника; его соединение уже в своём EventLoop,
+    // который читает его (и замечает, если клиент ушёл), не теряя ни байта
+    private Connection waiting;
+
+    public NioBattleshipServer(int port, int threads) {
+        this(port, threads, GameRules.STANDARD);
+    }
+
+    public NioBattleshipServer(int port, int threads, GameRules rules) {
+        this.port = port;
+        this.rules = rules;
+        this.loops = new EventLoop[threads];
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        GameRules rules = args.length > 2 ? GameRules.parse(args[2]) : GameRules.STANDARD;
+        if (args.length > 3) {
+            Metrics.get().serve(Integer.parseInt(args[3]));
+        }
+        new NioBattleshipServer(port, threads, rules).run();
+    }
+
+    public void run() throws IOException {
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(this, rules);
+            Thread t = new Thread(loops[i], "battleship-loop-" + i);
+            t.start();
+        }
+
+        System.out.println("=== Морской бой (NIO-сервер) ===");
+        System.out.println("Порт " + port + ", потоков: " + loops.length);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            while (true) {
+                SocketChannel client = server.accept();
+                try {
+                    pair(client);
+                } catch (IOException e) {
+                    closeQuietly(client);
+                }
+            }
+        }
+    }
+
+    // Первый клиент ждёт в своём цикле, второй забирает его в партию в том же цикле.
+    // Зовётся и из цикла, если ждавший ушёл, пока собиралась партия
+    private synchronized void pair(SocketChannel client) throws IOException {
+        client.configureBlocking(false);
+        client.socket().setTcpNoDelay(true);
+
+        if (waiting != null && waiting.closed) {
+            waiting = null;
+        }
+
+        if (waiting == null) {
+            EventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            waiting = loop.await(client);
+            return;
+        }
+
+        Connection first = waiting;
+        waiting = null;
+        first.loop.startMatch(first, client);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Поток с собственным Selector. Оба игрока партии всегда попадают в один поток,
+     * поэтому Match вызывается без синхронизации.
+     */
+    private static final class EventLoop implements Runnable {
+
+        private final NioBattleshipServer server;
+        private final Selector selector;
+        private final GameRules rules;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        EventLoop(NioBattleshipServer server, GameRules rules) throws IOException {
+            this.server = server;
+            this.rules = rules;
+            selector = Selector.open();
+        }
+
+        // Клиент ждёт соперника: читаем его, как в партии, но строки копятся до её начала
+        Connection await(SocketChannel client) {
+            Connection conn = new Connection(client, 1, this);
+            tasks.add(() -> {
+                try {
+                    conn.key = client.register(selector, SelectionKey.OP_READ, conn);
+                } catch (ClosedChannelException e) {
+                    conn.closeNow();
+                    return;
+                }
+                conn.sendMessage("Ожидание соперника...");
+            });
+            selector.wakeup();
+            return conn;
+        }
+
+        // first уже ждёт в этом цикле (await)
+        void startMatch(Connection first, SocketChannel second) {
+            tasks.add(() -> {
+                if (first.closed) {
+                    // ждавший ушёл, пока собиралась партия, – теперь ждёт второй
+                    try {
+                        server.pair(second);
+                    } catch (IOException e) {
+                        closeQuietly(second);
+                    }
+                    return;
+                }
+                Connection b = new Connection(second, 2, this);
+                Match match = new Match(rules, first, b);
+                first.match = match;
+                b.match = match;
+                try {
+                    b.key = second.register(selector, SelectionKey.OP_READ, b);
+                } catch (ClosedChannelException e) {
+                    first.close();
+                    b.close();
+                    return;
+                }
+                match.start();
+                // то, что первый игрок прислал, пока ждал соперника
+                first.parse();
+            });
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    System.out.println("Ошибка селектора: " + e.getMessage());
+                    return;
+                }
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Connection conn = (Connection) key.attachment();
+                    if (!key.isValid()) continue;
+                    try {
+                        if (key.isWritable()) conn.flush();
+                        if (key.isValid() && key.isReadable()) conn.read();
+                    } catch (RuntimeException e) {
+                        // ошибка одного соединения не должна останавливать цикл со всеми его партиями
+                        System.out.println("Ошибка соединения: " + e);
+                        try {
+                            conn.disconnect();
+                        } catch (RuntimeException ignored) {
+                            conn.closeNow();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Соединение с одним игроком: собирает входящие строки (или кадры BinaryProtocol)
+     * и копит исходящие, пока сокет не готов их принять.
+     */
+    private static final class Connection implements PlayerLink {
+
+        // открытые соединения, вместе с ждущими соперника (см. Metrics)
+        private static final LongAdder OPEN = new LongAdder();
+
+        static {
+            Metrics.get().gauge("connections{server=\"nio\"}", OPEN::sum);
+        }
+
+        private final SocketChannel channel;
+        private final int seat;
+        final EventLoop loop;
+        // непрочитанный остаток входящих данных
+        private final ByteBuffer inbox = ByteBuffer.allocate(MAX_LINE);
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+        private boolean binary = false;
+        // клиент уже получил поле целиком и дальше обновляет его сам
+        private boolean synced = false;
+        // клиент запрашивал поле с версией (см. enableVersions)
+        private boolean versioned = false;
+
+        // null – клиент ещё ждёт соперника
+        Match match;
+        SelectionKey key;
+        // читает и поток приёма (ушёл ли ждущий клиент)
+        volatile boolean closed = false;
+        // закрыть после отправки очереди (конец игры)
+        private boolean closeAfterFlush = false;
+
+        Connection(SocketChannel channel, int seat, EventLoop loop) {
+            this.channel = channel;
+            this.seat = seat;
+            this.loop = loop;
+            OPEN.increment();
+        }
+
+        void read() {
+            int n;
+            try {
+                n = channel.read(inbox);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n == -1) {
+                disconnect();
+                return;
+            }
+
+            parse();
+
+            // строка или кадр не помещаются в буфер – это не наш клиент
+            if (!closed && !inbox.hasRemaining()) disconnect();
+        }
+
+        // Разбирает всё, что пришло целиком; пока партии нет, входящее просто копится
+        void parse() {
+            inbox.flip();
+            while (!closed && match != null && (binary ? nextFrame() : nextLine())) {
+                // следующая строка или кадр
+            }
+            inbox.compact();
+        }
+
+        // Одна строка из inbox; false – целой строки ещё нет
+        private boolean nextLine() {
+            int end = -1;
+            for (int i = inbox.position(); i < inbox.limit(); i++) {
+                if (inbox.get(i) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end == -1) return false;
+
+            byte[] bytes = new byte[end - inbox.position()];
+            inbox.get(bytes);
+            inbox.get(); // '\n'
+            String text = new String(bytes, CHARSET).replace("\r", "");
+
+            if (text.trim().equals(BinaryProtocol.HELLO)) {
+                binary = true;
+            } else {
+                match.onLine(seat, text);
+            }
+            return true;
+        }
+
+        // Один кадр из inbox; false – целого кадра ещё нет
+        private boolean nextFrame() {
+            if (inbox.remaining() < 2) return false;
+            int start = inbox.position();
+            int length = ((inbox.get(start) & 0xFF) << 8) | (inbox.get(start + 1) & 0xFF);
+            if (length < 1) {
+                disconnect();
+                return false;
+            }
+            if (inbox.remaining() < 2 + length) return false;
+
+            inbox.position(start + 2);
+            int code = inbox.get() & 0xFF;
+            byte[] payload = new byte[length - 1];
+            inbox.get(payload);
+
+            try {
+                BinaryProtocol.Frame frame = BinaryProtocol.decode(code, payload);
+                if (frame.action == Action.SHOT) match.onLine(seat, frame.toCommand());
+            } catch (IOException e) {
+                disconnect();
+                return false;
+            }
+            return true;
+        }
+
+        private void send(String text) {
+            send(text.getBytes(CHARSET));
+        }
+
+        private void send(byte[] bytes) {
+            if (closed || closeAfterFlush) return;
+            writeQueue.add(ByteBuffer.wrap(bytes));
+            flush();
+        }
+
+        void flush() {
+            try {
+                while (!writeQueue.isEmpty()) {
+                    ByteBuffer buf = writeQueue.peek();
+                    channel.write(buf);
+                    if (buf.hasRemaining()) break;
+                    writeQueue.poll();
+                }
+            } catch (IOException e) {
+                disconnect();
+                return;
+            }
+
+            if (writeQueue.isEmpty() && closeAfterFlush) {
+                closeNow();
+            } else if (key != null && key.isValid()) {
+                key.interestOps(writeQueue.isEmpty()
+                        ? SelectionKey.OP_READ
+                        : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void disconnect() {
+            if (closed) return;
+            closeNow();
+            if (match != null) match.onDisconnect(seat);
+        }
+
+        @Override
+        public void sendMessage(String text) {
+            if (binary) send(BinaryProtocol.message(text));
+            else send(Action.MESSAGE.name() + ":" + text + "\n");
+        }
+
+        @Override
+        public void sendBoard(GameService game, int playerId) {
+            if (binary) {
+                if (!synced) send(BinaryProtocol.board(game, playerId));
+                synced = true;
+                return;
+            }
+            String board = game.boardForPlayer(playerId);
+            StringBuilder sb = new StringBuilder();
+            sb.append(Action.BOARD.name());
+            if (versioned) sb.append(':').append(game.getVersion());
+            sb.append('\n');
+            sb.append(board);
+            if (!board.endsWith("\n")) sb.append('\n');
+            sb.append("END_BOARD\n");
+            send(sb.toString());
+        }
+
+        @Override
+        public void sendNotModified(long version) {
+            if (!binary) send(Action.NOT_MODIFIED.name() + ":" + version + "\n");
+        }
+
+        @Override
+        public void enableVersions() {
+            versioned = true;
+        }
+
+        @Override
+        public void sendShot(GameService game, int playerId, int shooter, int row, int col,
+                             GameService.ShotResult result) {
+            if (binary && synced) send(BinaryProtocol.shotUpdate(game, playerId, shooter, row, col, result));
+            else sendBoard(game, playerId);
+        }
+
+        @Override
+        public void sendYourTurn() {
+            if (binary) send(BinaryProtocol.yourTurn());
+            else send(Action.YOUR_TURN.name() + "\n");
+        }
+
+        @Override
+        public void sendGameOver(int winner, String text) {
+            if (binary) send(BinaryProtocol.gameOver(winner, text));
+            else send(Action.GAME_OVER.name() + ":" + winner + ":" + text + "\n");
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            if (!writeQueue.isEmpty()) {
+                // сначала отдаём клиенту всё, что ему уже отправлено
+                closeAfterFlush = true;
+                if (key != null && key.isValid()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                }
+                return;
+            }
+            closeNow();
+        }
+
+        private void closeNow() {
+            if (closed) return;
+            closed = true;
+            OPEN.decrement();
+            writeQueue.clear();
+            if (key != null) key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
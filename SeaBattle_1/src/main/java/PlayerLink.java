@@ -0,0 +1,47 @@
+/**
+ * Канал до удалённого игрока в сетевой партии.
+ * Реализации переводят вызовы в протокол Action, понятный BattleshipClient
+ * (текстовый или BinaryProtocol).
+ */
+public interface PlayerLink {
+
+    void sendMessage(String text);
+
+    /**
+     * Поля игрока playerId: своё и выстрелы по противнику.
+     * Двоичный протокол шлёт поле целиком только один раз, дальше клиент
+     * знает его по sendShot, и повторный вызов ничего не отправляет.
+     */
+    void sendBoard(GameService game, int playerId);
+
+    /**
+     * Ответ на запрос поля "BOARD &lt;версия&gt;", если с этой версии партия не менялась:
+     * вместо поля – короткая строка NOT_MODIFIED. Двоичный клиент поле не запрашивает
+     * (он обновляет его сам), поэтому там ничего не отправляется.
+     */
+    void sendNotModified(long version);
+
+    /**
+     * Клиент прислал запрос поля "BOARD &lt;версия&gt;", значит, понимает версии: с этого момента
+     * текстовое поле уходит ему с заголовком "BOARD:&lt;версия&gt;". Остальные клиенты (в том числе
+     * прежний BattleshipClient) по-прежнему получают просто "BOARD".
+     */
+    void enableVersions();
+
+    /**
+     * Игрок shooter выстрелил по (row, col) с результатом result; сообщаем об этом игроку playerId.
+     * Текстовый протокол пересылает поле целиком, двоичный – только изменившуюся клетку
+     * (и контур корабля, если он потоплен).
+     */
+    void sendShot(GameService game, int playerId, int shooter, int row, int col, GameService.ShotResult result);
+
+    void sendYourTurn();
+
+    /**
+     * Конец игры. BattleshipClient считает себя Игроком 2, поэтому победитель передаётся
+     * относительно получателя: 2 – победил он сам, 1 – его соперник, 0 – ничья.
+     */
+    void sendGameOver(int winner, String text);
+
+    void close();
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Сколько байт получают клиенты за партию: текстовый и двоичный протоколы,
+ * а ещё опрос поля без версии и с версией, которая у клиента уже есть.
+ *
+ * Запуск: java ProtocolTraffic [партий]
+ *
+ * Партии идут через Match и StreamPlayerLink на локальных сокетах с одними и теми же
+ * расстановками и выстрелами при каждом запуске, так что цифры разных версий сравнимы.
+ * Время здесь не меряется – это делают замеры JMH (Benchmarks).
+ */
+public final class ProtocolTraffic {
+
+    private static final GameRules RULES = GameRules.STANDARD;
+    private static final int SIZE = RULES.getSize();
+
+    private ProtocolTraffic() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        // события партий (EventLog) – в файл, чтобы не мешали таблице
+        Path events = Files.createTempFile("battleship-events", ".log");
+        events.toFile().deleteOnExit();
+        EventLog.configure(events, EventLog.Overflow.DROP);
+
+        System.out.println("Байт на партию (" + games + " партий):");
+        print("text", bytesPerGame(false, false, false, games));
+        print("binary", bytesPerGame(true, false, false, games));
+        // ждущий игрок перед каждым выстрелом соперника спрашивает поле: без версии и с текущей
+        print("text.poll.full", bytesPerGame(false, true, false, games));
+        print("text.poll.notModified", bytesPerGame(false, true, true, games));
+    }
+
+    private static void print(String name, double bytes) {
+        System.out.printf("  %-24s %10.0f%n", name, bytes);
+    }
+
+    /**
+     * Играет games партий и считает, сколько байт в среднем пришло обоим клиентам.
+     * В двоичном режиме клиент переключается сразу, до первого поля, – как если бы
+     * первый YOUR_TURN пришёл раньше BOARD. С poll ждущий игрок перед каждым выстрелом
+     * соперника присылает "BOARD &lt;версия&gt;": с known – версию, которая у него уже есть
+     * (поле не изменилось), иначе -1 (нужно всё поле).
+     */
+    static double bytesPerGame(boolean binary, boolean poll, boolean known, int games)
+            throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(7);
+        FleetPlacer placer = new FleetPlacer(RULES);
+        long total = 0;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            for (int g = 0; g < games; g++) {
+                Socket[] clients = new Socket[2];
+                StreamPlayerLink[] links = new StreamPlayerLink[2];
+                Counter[] counters = new Counter[2];
+                for (int i = 0; i < 2; i++) {
+                    clients[i] = new Socket(server.getInetAddress(), server.getLocalPort());
+                    links[i] = new StreamPlayerLink(server.accept());
+                    if (binary) {
+                        OutputStream out = clients[i].getOutputStream();
+                        out.write((BinaryProtocol.HELLO + "\n").getBytes(BinaryProtocol.TEXT_CHARSET));
+                        out.write(BinaryProtocol.shot(0, 0));
+                        out.flush();
+                        links[i].readLine();
+                    }
+                    counters[i] = new Counter(clients[i].getInputStream());
+                    counters[i].start();
+                }
+
+                Match match = new Match(RULES,
+                        placer.place(random.nextLong()), placer.place(random.nextLong()), links[0], links[1]);
+                match.start();
+                int[][] order = {shuffledCells(random), shuffledCells(random)};
+                int[] next = new int[2];
+                while (!match.isFinished()) {
+                    int seat = match.getCurrentPlayer();
+                    if (poll) match.onLine(3 - seat, "BOARD " + (known ? match.getVersion() : -1));
+                    int cell = order[seat - 1][next[seat - 1]++];
+                    match.onLine(seat, "SHOT " + GameRules.coordToString(cell / SIZE, cell % SIZE));
+                }
+
+                for (int i = 0; i < 2; i++) {
+                    counters[i].join();
+                    total += counters[i].bytes;
+                    clients[i].close();
+                }
+            }
+        }
+        return games == 0 ? 0 : (double) total / games;
+    }
+
+    private static int[] shuffledCells(SplittableRandom random) {
+        int[] cells = new int[SIZE * SIZE];
+        for (int i = 0; i < cells.length; i++) cells[i] = i;
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = cells[i];
+            cells[i] = cells[j];
+            cells[j] = t;
+        }
+        return cells;
+    }
+
+    // Читает всё, что сервер пишет клиенту, до закрытия соединения
+    private static final class Counter extends Thread {
+        private final InputStream in;
+        long bytes;
+
+        Counter(InputStream in) {
+            this.in = in;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            byte[] buf = new byte[8192];
+            try {
+                int n;
+                while ((n = in.read(buf)) != -1) bytes += n;
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Случайный выстрел в любую необстрелянную клетку – точка отсчёта для сравнения стратегий.
+ */
+final class RandomStrategy extends BoardStrategy {
+
+    RandomStrategy(GameRules rules, long seed) {
+        super(rules, seed);
+    }
+
+    @Override
+    public int nextShot() {
+        return anyUnshotCell();
+    }
+}
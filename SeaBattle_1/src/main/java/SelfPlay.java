@@ -0,0 +1,206 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Партии бота против бота без сети и консоли: сравнение стратегий (Strategy)
+ * и замер пропускной способности движка.
+ *
+ * Запуск: java SelfPlay [--games N] [--threads N] [--rules правила] [--seed N] стратегия1 стратегия2
+ * например: java SelfPlay --games 1000000 density hunt
+ *
+ * Партии делятся на пачки по CHUNK. Пачку играет один поток на одном движке
+ * (GameServiceImpl.reset(seed)) и одной паре стратегий (Strategy.reset), так что партия
+ * не выделяет памяти вовсе. Пачки раздаёт ForkJoinPool с заданным числом потоков.
+ *
+ * Расстановки партии i зависят только от seed и i, а стратегии пачки – от seed и номера пачки,
+ * поэтому при одном seed итог одинаков при любом числе потоков. Чётные партии начинает
+ * первая стратегия, нечётные – вторая, чтобы право первого хода не влияло на сравнение.
+ */
+public final class SelfPlay {
+
+    private static final int CHUNK = 1000;
+
+    private final GameRules rules;
+    private final String[] names;
+    private final long seed;
+
+    public SelfPlay(GameRules rules, String first, String second, long seed) {
+        // ошибку в имени стратегии лучше увидеть сразу, а не в потоке пула
+        Strategy.create(first, rules, seed);
+        Strategy.create(second, rules, seed);
+        this.rules = rules;
+        this.names = new String[]{first, second};
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        GameRules rules = GameRules.STANDARD;
+        int games = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        String[] names = new String[2];
+        int named = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--games") && i + 1 < args.length) {
+                games = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--rules") && i + 1 < args.length) {
+                rules = GameRules.parse(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (named < 2) {
+                names[named++] = args[i];
+            }
+        }
+        if (named < 2) {
+            System.out.println("Запуск: java SelfPlay [--games N] [--threads N] [--rules правила] [--seed N] "
+                    + "стратегия1 стратегия2 (random, hunt, density)");
+            return;
+        }
+
+        Result result = new SelfPlay(rules, names[0], names[1], seed).play(games, threads);
+        System.out.println(names[0] + " против " + names[1] + ", правила " + rules + ", потоков " + threads);
+        System.out.print(result);
+    }
+
+    /**
+     * Итоги партий: победы каждой стратегии, её выстрелы в выигранных партиях и общее время.
+     */
+    public static final class Result {
+        private final String[] names;
+        private final long[] wins = new long[2];
+        // выстрелы стратегии в партиях, которые она выиграла
+        private final long[] winningShots = new long[2];
+        private long games = 0;
+        private long shots = 0;
+        private long nanos = 0;
+
+        Result(String[] names) {
+            this.names = names;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getShots() {
+            return shots;
+        }
+
+        // доля побед стратегии 0 или 1
+        public double winRate(int strategy) {
+            return games == 0 ? 0 : (double) wins[strategy] / games;
+        }
+
+        // сколько выстрелов в среднем нужно стратегии, чтобы выиграть
+        public double shotsToWin(int strategy) {
+            return wins[strategy] == 0 ? 0 : (double) winningShots[strategy] / wins[strategy];
+        }
+
+        public double shotsPerSecond() {
+            return nanos == 0 ? 0 : shots * 1e9 / nanos;
+        }
+
+        // Для сложения пачек: добавляет other к этому результату
+        private Result merge(Result other) {
+            for (int i = 0; i < 2; i++) {
+                wins[i] += other.wins[i];
+                winningShots[i] += other.winningShots[i];
+            }
+            games += other.games;
+            shots += other.shots;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("партий: %d за %.2f с, выстрелов в секунду: %.0f%n",
+                    games, nanos / 1e9, shotsPerSecond()));
+            for (int i = 0; i < 2; i++) {
+                sb.append(String.format("  %s: побед %.2f%%, выстрелов до победы в среднем %.2f%n",
+                        names[i], 100 * winRate(i), shotsToWin(i)));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Играет games партий в threads потоков.
+     */
+    public Result play(int games, int threads) {
+        int chunks = (games + CHUNK - 1) / CHUNK;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            Result result = pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> playChunk(chunk, chunk * CHUNK, Math.min(games, (chunk + 1) * CHUNK)))
+                    .reduce(Result::merge)
+                    .orElseGet(() -> new Result(names))).get();
+            result.nanos = System.nanoTime() - start;
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Партия завершилась ошибкой", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Партии from..to-1 на одном движке и одной паре стратегий
+    private Result playChunk(int chunk, int from, int to) {
+        Result result = new Result(names);
+        SplittableRandom random = new SplittableRandom(seed ^ chunk * 0x9E3779B97F4A7C15L);
+        Strategy[] bots = {
+                Strategy.create(names[0], rules, random.nextLong()),
+                Strategy.create(names[1], rules, random.nextLong())
+        };
+        GameServiceImpl game = new GameServiceImpl(rules, seed);
+        int[] shots = new int[2];
+
+        for (int i = from; i < to; i++) {
+            game.reset(seed + i * 0xBF58476D1CE4E5B9L);
+
+            // стратегия, которая играет за Игрока 1
+            int firstBot = i % 2;
+            bots[0].reset();
+            bots[1].reset();
+            shots[0] = 0;
+            shots[1] = 0;
+            play(game, bots[firstBot], bots[1 - firstBot], shots);
+
+            int winner = game.getWinner() == 1 ? firstBot : 1 - firstBot;
+            result.wins[winner]++;
+            result.winningShots[winner] += shots[game.getWinner() - 1];
+            result.shots += shots[0] + shots[1];
+            result.games++;
+        }
+        return result;
+    }
+
+    // Партия до конца; shots[seat - 1] – сколько выстрелил каждый игрок
+    private void play(GameServiceImpl game, Strategy first, Strategy second, int[] shots) {
+        int size = rules.getSize();
+        int seat = 1;
+        while (!game.isGameOver()) {
+            Strategy bot = seat == 1 ? first : second;
+            int cell = bot.nextShot();
+            int row = cell / size;
+            int col = cell % size;
+            GameService.ShotResult result = game.shoot(seat, row, col);
+            if (result == GameService.ShotResult.ALREADY_SHOT || result == GameService.ShotResult.INVALID) {
+                throw new IllegalStateException("Стратегия выбрала недопустимую клетку " + GameRules.coordToString(row, col));
+            }
+            bot.onResult(row, col, result, result == GameService.ShotResult.SUNK ? game.getLastSunkShip() : null);
+            shots[seat - 1]++;
+            if (result == GameService.ShotResult.MISS) {
+                seat = 3 - seat;
+            }
+        }
+    }
+}
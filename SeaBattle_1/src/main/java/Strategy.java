@@ -0,0 +1,45 @@
+/**
+ * Бот: решает, куда стрелять игроку, и учитывает результаты своих выстрелов.
+ * Видит то же, что и человек: куда он уже стрелял, попал ли и какой корабль потопил.
+ *
+ * Стратегия ничего не знает о движке – ход делает тот, кто ведёт партию:
+ * берёт клетку из nextShot, проверяет её через GameService.canShoot, стреляет
+ * и сообщает результат в onResult.
+ *
+ * Не потокобезопасна: один экземпляр – один игрок в одной партии
+ * (или несколько партий подряд с reset между ними).
+ */
+public interface Strategy {
+
+    /**
+     * Клетка следующего выстрела: row * size + col. В неё этот игрок ещё не стрелял.
+     */
+    int nextShot();
+
+    /**
+     * Результат выстрела по (row, col); sunk – потопленный корабль, если result == SUNK, иначе null.
+     */
+    void onResult(int row, int col, GameService.ShotResult result, GameService.Ship sunk);
+
+    /**
+     * Начать новую партию с теми же правилами.
+     */
+    void reset();
+
+    /**
+     * Стратегия по имени: random, hunt (добивание раненого, иначе шахматный поиск)
+     * или density (карта вероятностей по оставшемуся флоту).
+     */
+    static Strategy create(String name, GameRules rules, long seed) {
+        switch (name) {
+            case "random":
+                return new RandomStrategy(rules, seed);
+            case "hunt":
+                return new HuntTargetStrategy(rules, seed);
+            case "density":
+                return new DensityStrategy(rules, seed);
+            default:
+                throw new IllegalArgumentException("Неизвестная стратегия: " + name + " (random, hunt, density)");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Игрок на обычном (блокирующем) сокете: протокол Action, текстовый или двоичный
+ * (BinaryProtocol), если клиент попросил о нём.
+ */
+public class StreamPlayerLink implements PlayerLink {
+
+    // открытые соединения (см. Metrics)
+    private static final LongAdder OPEN = new LongAdder();
+
+    static {
+        Metrics.get().gauge("connections{server=\"stream\"}", OPEN::sum);
+    }
+
+    private final Socket socket;
+    private final BufferedInputStream in;
+    private final DataInputStream data;
+    private final OutputStream out;
+
+    private boolean binary = false;
+    // клиент уже получил поле целиком и дальше обновляет его сам
+    private boolean synced = false;
+    // клиент запрашивал поле с версией (см. enableVersions)
+    private boolean versioned = false;
+    private boolean closed = false;
+
+    public StreamPlayerLink(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.data = new DataInputStream(in);
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        OPEN.increment();
+    }
+
+    /**
+     * Следующая команда клиента в текстовом виде ("SHOT A0") или null, если он отключился.
+     * Просьбу перейти на двоичный протокол обрабатывает сама и читает дальше.
+     */
+    public String readLine() {
+        try {
+            while (true) {
+                if (binary) {
+                    BinaryProtocol.Frame frame = BinaryProtocol.readFrame(data);
+                    if (frame == null) return null;
+                    if (frame.action == Action.SHOT) return frame.toCommand();
+                    continue; // других кадров от клиента не бывает
+                }
+
+                String line = BinaryProtocol.readLine(in);
+                if (line == null) return null;
+                if (line.trim().equals(BinaryProtocol.HELLO)) {
+                    binary = true;
+                    continue;
+                }
+                return line;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Проверка ждущего соперника: клиент до своего хода ничего не пишет,
+     * поэтому таймаут чтения значит, что он на связи, а конец потока – что ушёл.
+     */
+    public boolean isAlive() {
+        try {
+            socket.setSoTimeout(1);
+            in.mark(1);
+            if (in.read() == -1) return false;
+            in.reset();
+            return true;
+        } catch (SocketTimeoutException e) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            try {
+                socket.setSoTimeout(0);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void sendMessage(String text) {
+        if (binary) send(BinaryProtocol.message(text));
+        else sendLine(Action.MESSAGE.name() + ":" + text);
+    }
+
+    @Override
+    public void sendBoard(GameService game, int playerId) {
+        if (binary) {
+            if (!synced) send(BinaryProtocol.board(game, playerId));
+            synced = true;
+            return;
+        }
+        // текст поля берём из кэша движка целиком, без разбора на строки
+        String board = game.boardForPlayer(playerId);
+        StringBuilder sb = new StringBuilder(board.length() + 40);
+        // версия – для следующего запроса "BOARD <версия>", только тем, кто такие запросы шлёт
+        sb.append(Action.BOARD.name());
+        if (versioned) sb.append(':').append(game.getVersion());
+        sb.append('\n');
+        sb.append(board);
+        if (!board.endsWith("\n")) sb.append('\n');
+        sb.append("END_BOARD");
+        sendLine(sb.toString());
+    }
+
+    @Override
+    public void sendNotModified(long version) {
+        if (!binary) sendLine(Action.NOT_MODIFIED.name() + ":" + version);
+    }
+
+    @Override
+    public void enableVersions() {
+        versioned = true;
+    }
+
+    @Override
+    public void sendShot(GameService game, int playerId, int shooter, int row, int col,
+                         GameService.ShotResult result) {
+        if (binary && synced) send(BinaryProtocol.shotUpdate(game, playerId, shooter, row, col, result));
+        else sendBoard(game, playerId);
+    }
+
+    @Override
+    public void sendYourTurn() {
+        if (binary) send(BinaryProtocol.yourTurn());
+        else sendLine(Action.YOUR_TURN.name());
+    }
+
+    @Override
+    public void sendGameOver(int winner, String text) {
+        if (binary) send(BinaryProtocol.gameOver(winner, text));
+        else sendLine(Action.GAME_OVER.name() + ":" + winner + ":" + text);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            OPEN.decrement();
+        }
+        try {
+            out.flush();
+        } catch (IOException ignored) {
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void sendLine(String line) {
+        send((line + "\n").getBytes(BinaryProtocol.TEXT_CHARSET));
+    }
+
+    // Ошибки записи не бросаем: обрыв связи всё равно обнаружится при чтении
+    private void send(byte[] bytes) {
+        try {
+            out.write(bytes);
+            out.flush();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,420 @@
+import bench.Case;
+import bench.Suite;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.Endpoint;
+import javax.xml.ws.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Замеры SOAP-версии для JMH (общая обвязка – модуль benchmarks): партия на сервере (GameSession),
+ * журнал и настоящие вызовы shoot, turn, getBoardIfChanged и isMyTurn через JsonBattleshipServer
+ * и локальный SOAP Endpoint.
+ *
+ * Запуск: mvn -pl SeaBattle_2 test-compile exec:exec -Djmh.args="[параметры JMH] [регулярки имён]"
+ *
+ * session.isMyTurn, session.shoot.journaled и *.isMyTurn можно гонять из нескольких потоков (-t 8).
+ * Сам движок меряется в Benchmarks из SeaBattle_1 – он там такой же.
+ */
+public class Benchmarks implements Suite {
+
+    private static final int SIZE = GameRules.STANDARD.getSize();
+
+    public Benchmarks() {
+        // события партий (EventLog) – в файл, чтобы не мешали выводу JMH
+        try {
+            Path events = Files.createTempFile("battleship-events", ".log");
+            events.toFile().deleteOnExit();
+            EventLog.configure(events, EventLog.Overflow.DROP);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Callable<Case>> cases() {
+        Map<String, Callable<Case>> cases = new LinkedHashMap<>();
+        session(cases);
+        journal(cases);
+        remote(cases, "json");
+        if (soapAvailable()) remote(cases, "soap");
+        return cases;
+    }
+
+    // --- Партия на сервере ---
+
+    private static void session(Map<String, Callable<Case>> cases) {
+        cases.put("session.shoot", () -> new Case() {
+            final Shooter shooter = new Shooter();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(shooter.shootLocal());
+            }
+        });
+
+        cases.put("session.getBoard", () -> {
+            GameSession board = started();
+            return (n, bh) -> {
+                for (int i = 0; i < n; i++) bh.consume(board.getBoard(1 + (i & 1)));
+            };
+        });
+
+        // опрос поля с версией, которая уже есть у клиента: поле не собирается и не копируется
+        cases.put("session.getBoard.notModified", () -> {
+            GameSession board = started();
+            long version = board.getBoard(1, -1).getVersion();
+            return (n, bh) -> {
+                for (int i = 0; i < n; i++) bh.consume(board.getBoard(1 + (i & 1), version).getVersion());
+            };
+        });
+
+        // isMyTurn читает volatile-снимок: из многих потоков (-t) не должен упираться в блокировку
+        cases.put("session.isMyTurn", () -> {
+            GameSession session = started();
+            return (n, bh) -> {
+                for (int i = 0; i < n; i++) bh.consume(session.isMyTurn(1 + (i & 1)));
+            };
+        });
+    }
+
+    private static GameSession started() {
+        GameSession session = new GameSession(0);
+        session.join();
+        session.join();
+        return session;
+    }
+
+    // --- Журнал: групповой fsync не должен становиться узким местом ---
+
+    private static void journal(Map<String, Callable<Case>> cases) {
+        // у каждого потока (-t) свои партии, журнал общий
+        cases.put("session.shoot.journaled", () -> new JournalCase() {
+            final ThreadLocal<Shooter> shooters = ThreadLocal.withInitial(() -> new Shooter(journal));
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                Shooter shooter = shooters.get();
+                for (int i = 0; i < n; i++) bh.consume(shooter.shootLocal());
+            }
+
+            @Override
+            public void close() throws IOException {
+                System.out.println("journal syncs: " + journal.getSyncs());
+                super.close();
+            }
+        });
+
+        // снимок живых партий: время на партию не должно зависеть от того, сколько ходов было
+        cases.put("journal.snapshot", () -> new JournalCase() {
+            List<GameSession> sessions;
+
+            @Override
+            public void setUp(int n) {
+                sessions = halfPlayed(journal, n);
+            }
+
+            @Override
+            public void run(int n, Blackhole bh) throws IOException {
+                journal.writeSnapshot(journal.rotate(), sessions);
+            }
+        });
+
+        // перезапуск по снимку – время на восстановленную партию
+        cases.put("journal.open", () -> new Case() {
+            final Path dir = Files.createTempDirectory("battleship");
+            final Path file = dir.resolve("games.journal");
+
+            @Override
+            public void setUp(int n) throws IOException {
+                clear(dir);
+                try (GameJournal journal = GameJournal.open(file, (j, game) -> { })) {
+                    journal.writeSnapshot(journal.rotate(), halfPlayed(journal, n));
+                }
+            }
+
+            @Override
+            public void run(int n, Blackhole bh) throws IOException {
+                List<GameSession> restored = new ArrayList<>();
+                GameJournal journal = GameJournal.open(file, (j, game) -> restored.add(GameSession.restore(game, j)));
+                journal.close();
+                if (restored.size() != n) throw new IllegalStateException("Восстановлено " + restored.size());
+                bh.consume(restored);
+            }
+
+            @Override
+            public void close() throws IOException {
+                clear(dir);
+                Files.delete(dir);
+            }
+        });
+    }
+
+    // Замер со своим журналом во временном каталоге
+    private abstract static class JournalCase implements Case {
+        final Path dir;
+        final GameJournal journal;
+
+        JournalCase() throws IOException {
+            dir = Files.createTempDirectory("battleship");
+            journal = GameJournal.open(dir.resolve("games.journal"), (j, game) -> { });
+        }
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+            clear(dir);
+            Files.delete(dir);
+        }
+    }
+
+    // Партии в журнале, сыгранные наполовину: по 30 выстрелов в случайные клетки
+    private static List<GameSession> halfPlayed(GameJournal journal, int games) {
+        List<GameSession> sessions = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(7);
+        FleetPlacer placer = new FleetPlacer(GameRules.STANDARD);
+        for (int id = 0; id < games; id++) {
+            GameSession session = new GameSession(id, GameRules.STANDARD,
+                    placer.place(random.nextLong()), placer.place(random.nextLong()), journal);
+            session.join();
+            session.join();
+            for (int i = 0; i < 60; i++) {
+                int seat = session.isMyTurn(1) ? 1 : 2;
+                session.shoot(seat, GameRules.coordToString(random.nextInt(SIZE), random.nextInt(SIZE)));
+            }
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    private static void clear(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+    }
+
+    // --- SOAP и HTTP/JSON (JsonBattleshipServer) рядом: один и тот же сервис, разный транспорт ---
+
+    private static void remote(Map<String, Callable<Case>> cases, String transport) {
+        cases.put(transport + ".shoot", () -> new RemoteCase(transport) {
+            final Shooter shooter = new Shooter(port());
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(shooter.shootRemote());
+            }
+        });
+        // тот же выстрел через turn: вместе с ним приходят чей ход и конец игры
+        cases.put(transport + ".turn", () -> new RemoteCase(transport) {
+            final Shooter shooter = new Shooter(port());
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(shooter.turnRemote());
+            }
+        });
+        // поле целиком и ответ "не изменилось" на ту же версию
+        cases.put(transport + ".getBoardIfChanged.full", () -> new RemoteCase(transport) {
+            final int playerId = port().registerPlayer();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(port().getBoardIfChanged(playerId, -1).getBoard());
+            }
+        });
+        cases.put(transport + ".getBoardIfChanged.notModified", () -> new RemoteCase(transport) {
+            final int playerId = port().registerPlayer();
+            final long version = port().getBoardIfChanged(playerId, -1).getVersion();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                for (int i = 0; i < n; i++) bh.consume(port().getBoardIfChanged(playerId, version).getVersion());
+            }
+        });
+        // из нескольких потоков (-t) – у каждого свой порт
+        cases.put(transport + ".isMyTurn", () -> new RemoteCase(transport) {
+            final int playerId = port().registerPlayer();
+
+            @Override
+            public void run(int n, Blackhole bh) {
+                BattleshipWebService port = port();
+                for (int i = 0; i < n; i++) bh.consume(port.isMyTurn(playerId));
+            }
+        });
+    }
+
+    // JAX-WS есть только в Java 8 (или с отдельными библиотеками)
+    private static boolean soapAvailable() {
+        try {
+            javax.xml.ws.spi.Provider.provider();
+            return true;
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Свой сервер на замер: JsonBattleshipServer или SOAP Endpoint над новым BattleshipWebServiceImpl
+    private abstract static class RemoteCase implements Case {
+        private final ExecutorService pool = Executors.newCachedThreadPool();
+        private JsonBattleshipServer json;
+        private Endpoint endpoint;
+        // порт JAX-WS не обещает потокобезопасности – у каждого потока свой
+        private final ThreadLocal<BattleshipWebService> ports;
+
+        RemoteCase(String transport) throws IOException {
+            BattleshipWebServiceImpl impl = new BattleshipWebServiceImpl();
+            Supplier<BattleshipWebService> factory;
+            if (transport.equals("json")) {
+                json = new JsonBattleshipServer(impl, freePort(), pool);
+                json.start();
+                String url = "http://localhost:" + json.getPort() + "/api/";
+                factory = () -> new JsonServicePort(url);
+            } else {
+                String url = "http://localhost:" + freePort() + "/battleship";
+                endpoint = Endpoint.create(impl);
+                endpoint.setExecutor(pool);
+                endpoint.publish(url);
+                Service service = Service.create(new URL(url + "?wsdl"), new QName("http://battleship/", "BattleshipService"));
+                factory = () -> service.getPort(BattleshipWebService.class);
+            }
+            ports = ThreadLocal.withInitial(factory);
+        }
+
+        BattleshipWebService port() {
+            return ports.get();
+        }
+
+        @Override
+        public void close() {
+            if (endpoint != null) endpoint.stop();
+            if (json != null) json.stop();
+            pool.shutdown();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+
+    /**
+     * Играет партии подряд: стреляет тот, чей ход, по своим клеткам в случайном порядке;
+     * кончилась партия – начинает новую.
+     */
+    private static final class Shooter {
+        private final BattleshipWebService port;
+        private final GameJournal journal;
+        // одни и те же партии при каждом запуске
+        private final SplittableRandom random = new SplittableRandom(7);
+        private final FleetPlacer placer = new FleetPlacer(GameRules.STANDARD);
+
+        private GameSession session;
+        private final int[] players = new int[2];
+        private int[][] order;
+        private int[] next;
+        private int seat;
+        // версии состояния, известные каждому игроку (для turnRemote)
+        private final long[] versions = new long[2];
+
+        // локально, без SOAP
+        Shooter() {
+            this(null, null);
+        }
+
+        // локально, с журналом
+        Shooter(GameJournal journal) {
+            this(null, journal);
+        }
+
+        Shooter(BattleshipWebService port) {
+            this(port, null);
+        }
+
+        private Shooter(BattleshipWebService port, GameJournal journal) {
+            this.port = port;
+            this.journal = journal;
+        }
+
+        String shootLocal() {
+            if (session == null || session.isGameOver()) {
+                session = new GameSession(0, GameRules.STANDARD,
+                        placer.place(random.nextLong()), placer.place(random.nextLong()), journal);
+                session.join();
+                session.join();
+                newGame();
+            }
+            String result = session.shoot(seat, nextCoord());
+            if (result.startsWith("Мимо")) seat = 3 - seat;
+            return result;
+        }
+
+        String shootRemote() {
+            if (order == null) {
+                players[0] = port.registerPlayer();
+                players[1] = port.registerPlayer();
+                newGame();
+            }
+            String result = port.shoot(players[seat - 1], nextCoord());
+            if (result.startsWith("Мимо")) seat = 3 - seat;
+            if (result.contains("Игра окончена")) order = null;
+            return result;
+        }
+
+        // Тот же выстрел через turn: вместе с ним приходят чей ход и конец игры,
+        // отдельные isGameOverFor/isMyTurn клиенту уже не нужны
+        String turnRemote() {
+            if (order == null) {
+                players[0] = port.registerPlayer();
+                players[1] = port.registerPlayer();
+                versions[0] = versions[1] = -1;
+                newGame();
+            }
+            int i = seat - 1;
+            GameState state = port.turn(players[i], nextCoord(), versions[i]);
+            versions[i] = state.getVersion();
+            if (state.isGameOver()) order = null;
+            else if (!state.isMyTurn()) seat = 3 - seat;
+            return state.getResult();
+        }
+
+        private void newGame() {
+            order = new int[][]{shuffledCells(), shuffledCells()};
+            next = new int[2];
+            seat = 1;
+        }
+
+        private String nextCoord() {
+            int cell = order[seat - 1][next[seat - 1]++];
+            return GameRules.coordToString(cell / SIZE, cell % SIZE);
+        }
+
+        private int[] shuffledCells() {
+            int[] cells = new int[SIZE * SIZE];
+            for (int i = 0; i < cells.length; i++) cells[i] = i;
+            for (int i = cells.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = cells[i];
+                cells[i] = cells[j];
+                cells[j] = t;
+            }
+            return cells;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import javax.xml.ws.Endpoint;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+// Запуск: java BattleshipServicePublisher [правила, например 16:5,4,4,3,3,2,2,1,1] [--journal файл] [--metrics порт]
+//        [--log файл] [--log-overflow drop|block] [--json порт [--json-threads N]]
+// С журналом незаконченные партии переживают перезапуск сервера.
+// С --metrics счётчики и задержки (Metrics) отдаются по http://localhost:порт/metrics; в JMX они есть всегда.
+// События (подключения, концы партий) пишет EventLog: в консоль или с --log файл в файл;
+// --log-overflow block – ждать места в буфере журнала, а не отбрасывать события (drop).
+// С --json те же операции доступны и по HTTP/JSON (JsonBattleshipServer) – с общими партиями;
+// --json-threads ограничивает его пул (по умолчанию не ограничен, как у SOAP)
+public class BattleshipServicePublisher {
+    public static void main(String[] args) throws IOException {
+        String url = "http://localhost:8080/battleship";
+        GameRules rules = GameRules.STANDARD;
+        String journal = null;
+        String log = null;
+        int jsonPort = -1;
+        int jsonThreads = 0;
+        EventLog.Overflow overflow = EventLog.Overflow.DROP;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--journal") && i + 1 < args.length) journal = args[++i];
+            else if (args[i].equals("--metrics") && i + 1 < args.length) Metrics.get().serve(Integer.parseInt(args[++i]));
+            else if (args[i].equals("--log") && i + 1 < args.length) log = args[++i];
+            else if (args[i].equals("--json") && i + 1 < args.length) jsonPort = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--json-threads") && i + 1 < args.length) jsonThreads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--log-overflow") && i + 1 < args.length)
+                overflow = EventLog.Overflow.valueOf(args[++i].toUpperCase(Locale.ROOT));
+            else rules = GameRules.parse(args[i]);
+        }
+
+        if (log != null) EventLog.configure(Paths.get(log), overflow);
+
+        BattleshipWebServiceImpl service = journal == null
+                ? new BattleshipWebServiceImpl(rules)
+                : new BattleshipWebServiceImpl(rules, Paths.get(journal));
+        System.out.println("Правила " + rules + (journal == null ? "" : ", журнал " + journal));
+
+        if (jsonPort >= 0) {
+            JsonBattleshipServer json = new JsonBattleshipServer(service, jsonPort,
+                    jsonThreads > 0 ? Executors.newFixedThreadPool(jsonThreads) : Executors.newCachedThreadPool());
+            json.start();
+            System.out.println("JSON сервер запущен: http://localhost:" + json.getPort() + "/api/");
+        }
+
+        // По умолчанию все запросы обрабатывает один поток HTTP-сервера;
+        // отдаём их пулу, чтобы разные партии обслуживались параллельно.
+        // Пул не ограничен: awaitMyTurn держит поток, пока игрок ждёт своего хода
+        try {
+            Endpoint endpoint = Endpoint.create(service);
+            endpoint.setExecutor(Executors.newCachedThreadPool());
+            endpoint.publish(url);
+        } catch (LinkageError e) {
+            // JAX-WS есть только в Java 8 (или с отдельными библиотеками); JSON работает и без него
+            if (jsonPort < 0) throw e;
+            System.out.println("SOAP недоступен (" + e + "), работает только JSON");
+            return;
+        }
+        System.out.println("SOAP сервер запущен: " + url);
+    }
+}
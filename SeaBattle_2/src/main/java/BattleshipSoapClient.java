@@ -0,0 +1,134 @@
+import javax.xml.namespace.QName;
+import javax.xml.ws.Service;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Scanner;
+
+// Запуск: java BattleshipSoapClient [--json [адрес]] [номер игрока] – с номером продолжает свою партию
+// (например, после перезапуска сервера с журналом); с --json ходит не через SOAP,
+// а в JsonBattleshipServer (по умолчанию http://localhost:8081/api/)
+public class BattleshipSoapClient {
+
+    private static final long AWAIT_MS = 30_000;
+
+    public static void main(String[] args) throws Exception {
+        String json = null;
+        String player = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--json"))
+                json = i + 1 < args.length && args[i + 1].startsWith("http") ? args[++i] : "http://localhost:8081/api/";
+            else player = args[i];
+        }
+
+        BattleshipWebService port = json != null ? new JsonServicePort(json) : soapPort();
+
+        Scanner sc = new Scanner(System.in);
+
+        int playerId = player != null ? Integer.parseInt(player) : port.registerPlayer();
+        int seat = port.getSeat(playerId);
+        if (seat == -1) {
+            System.out.println("Партия игрока " + playerId + " не найдена");
+            return;
+        }
+
+        System.out.println("Вы игрок " + seat + " (номер для продолжения партии: " + playerId + ")");
+
+        // Состояние партии приходит одним ответом: сначала целиком, вместе с клетками своих кораблей,
+        // дальше только изменения после известной клиенту версии. Поле клиент рисует сам,
+        // так что на ход нужен один запрос turn, а на ожидание противника – awaitState
+        Board board = new Board();
+        GameState state = port.getState(playerId, -1);
+        board.apply(state);
+        while (!state.isGameOver()) {
+
+            // Сервер сам держит запрос, пока противник не походит, и сразу отдаёт его выстрелы
+            if (!state.isMyTurn()) {
+                System.out.print("Ждём ход противника...");
+                do {
+                    state = port.awaitState(playerId, state.getVersion(), AWAIT_MS);
+                    board.apply(state);
+                    if (state.getChanges().isEmpty()) System.out.print(".");
+                    else if (!state.isFull()) {
+                        System.out.print("\r                             \r"); // Очистка строки
+                        for (CellChange c : state.getChanges())
+                            if (c.isOwn()) System.out.println("Противник стреляет: " + c.getCell() + (c.isHit() ? " – попадание" : " – мимо"));
+                    }
+                } while (!state.isMyTurn() && !state.isGameOver());
+                System.out.print("\r                             \r");
+                if (state.isGameOver()) break;
+            }
+
+            System.out.println("\n--- Ваш ход ---");
+            System.out.println(board);
+
+            System.out.print("Введите клетку (например A5): ");
+            String cell = sc.nextLine();
+
+            // Выстрел и новое состояние за один запрос
+            state = port.turn(playerId, cell, state.getVersion());
+            board.apply(state);
+            System.out.println(state.getResult());
+        }
+
+        System.out.println("Игра окончена! Победитель: игрок " + state.getWinner());
+    }
+
+    // Поле игрока на клиенте: из полного состояния (свои корабли и все выстрелы), дальше – по изменениям.
+    // Текст тот же, что у getBoard
+    private static final class Board {
+        private char[][] own = new char[0][];
+        private char[][] shots = new char[0][];
+
+        void apply(GameState state) {
+            int size = state.getSize();
+            if (state.isFull()) {
+                own = water(size);
+                shots = water(size);
+                for (String ship : state.getShips()) {
+                    int[] rc = GameRules.parseCoord(ship, size);
+                    own[rc[0]][rc[1]] = 'O';
+                }
+            }
+            for (CellChange c : state.getChanges()) {
+                int[] rc = GameRules.parseCoord(c.getCell(), size);
+                (c.isOwn() ? own : shots)[rc[0]][rc[1]] = c.isHit() ? 'X' : '*';
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Ваши корабли:\n");
+            render(sb, own);
+            sb.append("\nВаши выстрелы:\n");
+            render(sb, shots);
+            return sb.toString();
+        }
+
+        private static char[][] water(int size) {
+            char[][] board = new char[size][size];
+            for (char[] row : board) Arrays.fill(row, '~');
+            return board;
+        }
+
+        private static void render(StringBuilder sb, char[][] board) {
+            if (board.length == 0) return;
+            BoardText text = BoardText.of(board.length);
+            text.appendHeader(sb);
+            for (int r = 0; r < board.length; r++) {
+                text.appendRowStart(sb, r);
+                for (char ch : board[r]) text.appendCell(sb, ch);
+                sb.append('\n');
+            }
+        }
+    }
+
+    private static BattleshipWebService soapPort() throws Exception {
+        URL wsdl = new URL("http://localhost:8080/battleship?wsdl");
+
+        // Должно совпадать с targetNamespace и serviceName в @WebService
+        QName qname = new QName("http://battleship/", "BattleshipService");
+        Service serv = Service.create(wsdl, qname);
+
+        return serv.getPort(BattleshipWebService.class);
+    }
+}
@@ -0,0 +1,61 @@
+import javax.jws.WebMethod;
+import javax.jws.WebService;
+
+@WebService(
+        targetNamespace = "http://battleship/"
+)
+public interface BattleshipWebService {
+
+    // Номер игрока определяет и партию, и место в ней
+    @WebMethod
+    int registerPlayer();
+
+    // Место в партии: 1 или 2 (-1 – партия не найдена)
+    @WebMethod
+    int getSeat(int playerId);
+
+    @WebMethod
+    String getBoard(int playerId);
+
+    // getBoard по версии из прошлого ответа (-1 – первый запрос): если партия с тех пор
+    // не менялась, поле не пересылается (board = null); партии нет – found = false
+    @WebMethod
+    BoardUpdate getBoardIfChanged(int playerId, long knownVersion);
+
+    @WebMethod
+    String shoot(int playerId, String coord);
+
+    @WebMethod
+    boolean isMyTurn(int playerId);
+
+    // Ждёт на сервере своего хода (или конца игры) не дольше timeoutMs; true – ход наш
+    @WebMethod
+    boolean awaitMyTurn(int playerId, long timeoutMs);
+
+    @WebMethod
+    boolean isGameOverFor(int playerId);
+
+    @WebMethod
+    int getWinnerFor(int playerId);
+
+    // awaitMyTurn и getState одним запросом: ждёт своего хода (или конца игры) не дольше timeoutMs
+    // и отдаёт состояние с клетками, изменившимися после sinceVersion
+    @WebMethod
+    GameState awaitState(int playerId, long sinceVersion, long timeoutMs);
+
+    // Состояние для игрока одним ответом: чей ход, конец игры, победитель и клетки,
+    // изменившиеся после sinceVersion (версия из прошлого ответа; -1 – всё с начала)
+    @WebMethod
+    GameState getState(int playerId, long sinceVersion);
+
+    // shoot и getState одним запросом; в result – текст выстрела, как у shoot
+    @WebMethod
+    GameState turn(int playerId, String coord, long sinceVersion);
+
+    // Устаревшие: только для первой партии
+    @WebMethod
+    boolean isGameOver();
+
+    @WebMethod
+    int getWinner();
+}
@@ -0,0 +1,195 @@
+import javax.jws.WebService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+@WebService(
+        endpointInterface = "BattleshipWebService",
+        serviceName = "BattleshipService",
+        portName = "BattleshipPort",
+        targetNamespace = "http://battleship/"
+)
+public class BattleshipWebServiceImpl implements BattleshipWebService {
+
+    private static final String NO_GAME = "Игра не найдена";
+
+    // дольше держать запрос не стоит: клиент или прокси могут оборвать соединение
+    private static final long MAX_AWAIT_MS = 60_000;
+
+    // Вызовы по операциям через любой транспорт – SOAP или JsonBattleshipServer (см. Metrics)
+    private static final LongAdder REGISTER_CALLS = calls("registerPlayer");
+    private static final LongAdder SEAT_CALLS = calls("getSeat");
+    private static final LongAdder BOARD_CALLS = calls("getBoard");
+    private static final LongAdder BOARD_IF_CHANGED_CALLS = calls("getBoardIfChanged");
+    // ответы getBoardIfChanged без поля
+    private static final LongAdder BOARD_NOT_MODIFIED = Metrics.get().counter("board_not_modified_total");
+    private static final LongAdder SHOOT_CALLS = calls("shoot");
+    private static final LongAdder MY_TURN_CALLS = calls("isMyTurn");
+    private static final LongAdder AWAIT_CALLS = calls("awaitMyTurn");
+    private static final LongAdder AWAIT_STATE_CALLS = calls("awaitState");
+    private static final LongAdder GAME_OVER_CALLS = calls("isGameOverFor");
+    private static final LongAdder WINNER_CALLS = calls("getWinnerFor");
+    private static final LongAdder OLD_GAME_OVER_CALLS = calls("isGameOver");
+    private static final LongAdder OLD_WINNER_CALLS = calls("getWinner");
+    private static final LongAdder STATE_CALLS = calls("getState");
+    private static final LongAdder TURN_CALLS = calls("turn");
+    // запросы awaitMyTurn и awaitState, которые сейчас держат соединение
+    private static final LongAdder AWAITING = new LongAdder();
+
+    static {
+        Metrics.get().gauge("awaiting_turn", AWAITING::sum);
+    }
+
+    // Партии живут в реестре, у каждой своя блокировка
+    private final GameRegistry registry;
+
+    public BattleshipWebServiceImpl() {
+        this(GameRules.STANDARD);
+    }
+
+    public BattleshipWebServiceImpl(GameRules rules) {
+        registry = new GameRegistry(rules);
+    }
+
+    // партии восстанавливаются из журнала и пишутся в него
+    public BattleshipWebServiceImpl(GameRules rules, Path journal) throws IOException {
+        registry = new GameRegistry(rules, journal);
+    }
+
+    @Override
+    public int registerPlayer() {
+        REGISTER_CALLS.increment();
+        int playerId = registry.registerPlayer();
+        EventLog.get().log("player_registered", "player", playerId,
+                "game", GameRegistry.gameIdOf(playerId), "seat", GameRegistry.seatOf(playerId));
+        return playerId;
+    }
+
+    @Override
+    public int getSeat(int playerId) {
+        SEAT_CALLS.increment();
+        return registry.find(playerId) == null ? -1 : GameRegistry.seatOf(playerId);
+    }
+
+    @Override
+    public String getBoard(int playerId) {
+        BOARD_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return NO_GAME;
+        return session.getBoard(GameRegistry.seatOf(playerId));
+    }
+
+    @Override
+    public BoardUpdate getBoardIfChanged(int playerId, long knownVersion) {
+        BOARD_IF_CHANGED_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return BoardUpdate.notFound();
+        BoardUpdate update = session.getBoard(GameRegistry.seatOf(playerId), knownVersion);
+        if (!update.isModified()) BOARD_NOT_MODIFIED.increment();
+        return update;
+    }
+
+    @Override
+    public String shoot(int playerId, String coord) {
+        SHOOT_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return NO_GAME;
+        return session.shoot(GameRegistry.seatOf(playerId), coord);
+    }
+
+    @Override
+    public boolean isMyTurn(int playerId) {
+        MY_TURN_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        return session != null && session.isMyTurn(GameRegistry.seatOf(playerId));
+    }
+
+    @Override
+    public boolean awaitMyTurn(int playerId, long timeoutMs) {
+        AWAIT_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return false;
+        AWAITING.increment();
+        try {
+            return session.awaitMyTurn(GameRegistry.seatOf(playerId), Math.min(Math.max(timeoutMs, 0), MAX_AWAIT_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            AWAITING.decrement();
+        }
+    }
+
+    @Override
+    public GameState awaitState(int playerId, long sinceVersion, long timeoutMs) {
+        AWAIT_STATE_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return GameState.noGame(null);
+        int seat = GameRegistry.seatOf(playerId);
+        AWAITING.increment();
+        try {
+            return session.awaitState(seat, sinceVersion, Math.min(Math.max(timeoutMs, 0), MAX_AWAIT_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return session.getState(seat, sinceVersion);
+        } finally {
+            AWAITING.decrement();
+        }
+    }
+
+    @Override
+    public boolean isGameOverFor(int playerId) {
+        GAME_OVER_CALLS.increment();
+        return gameOver(playerId);
+    }
+
+    @Override
+    public int getWinnerFor(int playerId) {
+        WINNER_CALLS.increment();
+        return winner(playerId);
+    }
+
+    @Override
+    public GameState getState(int playerId, long sinceVersion) {
+        STATE_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return GameState.noGame(null);
+        return session.getState(GameRegistry.seatOf(playerId), sinceVersion);
+    }
+
+    @Override
+    public GameState turn(int playerId, String coord, long sinceVersion) {
+        TURN_CALLS.increment();
+        GameSession session = registry.find(playerId);
+        if (session == null) return GameState.noGame(NO_GAME);
+        return session.turn(GameRegistry.seatOf(playerId), coord, sinceVersion);
+    }
+
+    // Старые операции без номера игрока относятся к первой партии (игроки 1 и 2)
+    @Override
+    public boolean isGameOver() {
+        OLD_GAME_OVER_CALLS.increment();
+        return gameOver(1);
+    }
+
+    @Override
+    public int getWinner() {
+        OLD_WINNER_CALLS.increment();
+        return winner(1);
+    }
+
+    private boolean gameOver(int playerId) {
+        // удалённая партия для клиента тоже закончена
+        GameSession session = registry.find(playerId);
+        return session == null || session.isGameOver();
+    }
+
+    private int winner(int playerId) {
+        GameSession session = registry.find(playerId);
+        return session == null ? 0 : session.getWinner();
+    }
+
+    private static LongAdder calls(String method) {
+        return Metrics.get().counter("service_calls_total{method=\"" + method + "\"}");
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Реализация GameService на битовых масках.
+ *
+ * Каждый слой поля (корабли, попадания, промахи) хранится по long на строку:
+ * клетка (row, col) – это бит col в слове playerIndex * size + row. Поле может быть
+ * до 64×64, а выстрел, проверка клетки и конец игры – всё равно несколько битовых
+ * операций без выделения памяти, независимо от размера поля.
+ *
+ * Расстановка флота совпадает с GameServiceImpl при одинаковых правилах и seed.
+ */
+public class BitboardGameService implements GameService {
+
+    private final GameRules rules;
+    private final int size;
+    private final BoardText text;
+
+    // [playerIndex * size + row] – слои поля каждого игрока
+    private final long[] ships;
+    private final long[] hits;   // попадания противника по этому полю
+    private final long[] misses; // промахи противника по этому полю
+
+    private final int[] cellsLeft = new int[2]; // сколько палуб осталось у каждого игрока
+
+    // номер корабля в клетке row * size + col (-1 – нет корабля) и живые палубы каждого корабля
+    private final short[][] shipIds;
+    private final int[][] decksLeft;
+
+    private final int[][] shipRows;
+    private final int[][] shipCols;
+    private final boolean[][] shipHorizontal;
+
+    private int lastSunkPlayer = -1;
+    private int lastSunkShip = -1;
+
+    // см. getVersion
+    private long version = 0;
+
+    public BitboardGameService() {
+        this(GameRules.STANDARD);
+    }
+
+    public BitboardGameService(long seed) {
+        this(GameRules.STANDARD, seed);
+    }
+
+    public BitboardGameService(GameRules rules) {
+        this(rules, ThreadLocalRandom.current().nextLong());
+    }
+
+    public BitboardGameService(GameRules rules, long seed) {
+        this(rules, new SplittableRandom(seed));
+    }
+
+    // seed обоих флотов берутся из random
+    public BitboardGameService(GameRules rules, SplittableRandom random) {
+        this(rules, new FleetPlacer(rules), random);
+    }
+
+    private BitboardGameService(GameRules rules, FleetPlacer placer, SplittableRandom random) {
+        this(rules, placer.place(random.nextLong()), placer.place(random.nextLong()));
+    }
+
+    // готовые расстановки, например из FleetPool
+    public BitboardGameService(GameRules rules, FleetLayout first, FleetLayout second) {
+        this.rules = rules;
+        this.size = rules.getSize();
+        this.text = BoardText.of(size);
+        int count = rules.shipCount();
+
+        ships = new long[2 * size];
+        hits = new long[2 * size];
+        misses = new long[2 * size];
+        shipIds = new short[2][size * size];
+        decksLeft = new int[2][count];
+        shipRows = new int[2][count];
+        shipCols = new int[2][count];
+        shipHorizontal = new boolean[2][count];
+
+        Arrays.fill(shipIds[0], (short) -1);
+        Arrays.fill(shipIds[1], (short) -1);
+        placeFleet(0, first);
+        placeFleet(1, second);
+    }
+
+    // Тот же FleetPlacer, что и в GameServiceImpl, поэтому при одном seed флот совпадает
+    private void placeFleet(int p, FleetLayout layout) {
+        if (layout.getSize() != size || layout.shipCount() != rules.shipCount())
+            throw new IllegalArgumentException("Расстановка не для правил " + rules);
+        for (int s = 0; s < rules.shipCount(); s++) {
+            int len = rules.shipLength(s);
+            int row = layout.row(s);
+            int col = layout.col(s);
+            boolean horizontal = layout.isHorizontal(s);
+            int dr = horizontal ? 0 : 1;
+            int dc = horizontal ? 1 : 0;
+
+            for (int i = 0; i < len; i++) {
+                int r = row + dr * i;
+                int c = col + dc * i;
+                ships[p * size + r] |= 1L << c;
+                shipIds[p][r * size + c] = (short) s;
+            }
+            decksLeft[p][s] = len;
+            shipRows[p][s] = row;
+            shipCols[p][s] = col;
+            shipHorizontal[p][s] = horizontal;
+        }
+        cellsLeft[p] = rules.getTotalDecks();
+    }
+
+    @Override
+    public ShotResult shoot(int playerId, int row, int col) {
+        if (playerId != 1 && playerId != 2) return ShotResult.INVALID;
+        if (row < 0 || row >= size || col < 0 || col >= size) return ShotResult.INVALID;
+
+        int victim = 2 - playerId;
+        int w = victim * size + row;
+        long bit = 1L << col;
+
+        if (((hits[w] | misses[w]) & bit) != 0) {
+            return ShotResult.ALREADY_SHOT;
+        }
+
+        version++;
+        if ((ships[w] & bit) == 0) {
+            misses[w] |= bit;
+            return ShotResult.MISS;
+        }
+
+        hits[w] |= bit;
+        cellsLeft[victim]--;
+
+        int ship = shipIds[victim][row * size + col];
+        if (--decksLeft[victim][ship] == 0) {
+            lastSunkPlayer = victim;
+            lastSunkShip = ship;
+            return ShotResult.SUNK;
+        }
+        return ShotResult.HIT;
+    }
+
+    @Override
+    public boolean canShoot(int playerId, int row, int col) {
+        if (playerId != 1 && playerId != 2) return false;
+        if (row < 0 || row >= size || col < 0 || col >= size) return false;
+        int w = (2 - playerId) * size + row;
+        return ((hits[w] | misses[w]) & (1L << col)) == 0;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return cellsLeft[0] == 0 || cellsLeft[1] == 0;
+    }
+
+    @Override
+    public int getWinner() {
+        boolean first = cellsLeft[0] == 0;
+        boolean second = cellsLeft[1] == 0;
+        if (first == second) return 0; // игра идёт (или теоретическая ничья)
+        return first ? 2 : 1;
+    }
+
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public Ship getLastSunkShip() {
+        if (lastSunkShip < 0) return null;
+        int p = lastSunkPlayer;
+        int s = lastSunkShip;
+        return new Ship(shipRows[p][s], shipCols[p][s], rules.shipLength(s), shipHorizontal[p][s]);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String boardForPlayer(int playerId) {
+        int idx = playerId - 1;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ваши корабли:\n");
+        render(sb, idx, true);
+        sb.append("\nВаши выстрелы:\n");
+        render(sb, 1 - idx, false);
+        return sb.toString();
+    }
+
+    private void render(StringBuilder sb, int p, boolean showShips) {
+        text.appendHeader(sb);
+        for (int r = 0; r < size; r++) {
+            text.appendRowStart(sb, r);
+            for (int c = 0; c < size; c++) {
+                text.appendCell(sb, cell(p * size + r, 1L << c, showShips));
+            }
+            sb.append("\n");
+        }
+    }
+
+    private char cell(int w, long bit, boolean showShips) {
+        if ((hits[w] & bit) != 0) return 'X';
+        if ((misses[w] & bit) != 0) return '*';
+        if (showShips && (ships[w] & bit) != 0) return 'O';
+        return '~';
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Map;
+
+// Ответ getBoardIfChanged: поле, только если оно изменилось после версии, известной клиенту.
+// Не изменилось – board = null и ответ занимает несколько байт вместо всего поля.
+// Партии нет (неверный номер игрока или партия уже удалена) – found = false, поля тоже нет
+public class BoardUpdate {
+
+    private long version;
+    private boolean found = true;
+    private boolean modified;
+    private String board;
+
+    // для JAXB
+    public BoardUpdate() {
+    }
+
+    public BoardUpdate(long version, String board) {
+        this.version = version;
+        this.modified = board != null;
+        this.board = board;
+    }
+
+    static BoardUpdate notFound() {
+        BoardUpdate u = new BoardUpdate(-1, null);
+        u.found = false;
+        return u;
+    }
+
+    public long getVersion() { return version; }
+
+    public void setVersion(long version) { this.version = version; }
+
+    public boolean isFound() { return found; }
+
+    public void setFound(boolean found) { this.found = found; }
+
+    public boolean isModified() { return modified; }
+
+    public void setModified(boolean modified) { this.modified = modified; }
+
+    public String getBoard() { return board; }
+
+    public void setBoard(String board) { this.board = board; }
+
+    String toJson() {
+        return "{\"version\":" + version + ",\"found\":" + found + ",\"modified\":" + modified
+                + ",\"board\":" + (board == null ? "null" : Json.quote(board)) + "}";
+    }
+
+    @SuppressWarnings("unchecked")
+    static BoardUpdate fromJson(String json) {
+        Map<String, Object> m = (Map<String, Object>) Json.parse(json);
+        BoardUpdate u = new BoardUpdate((Long) m.get("version"), (String) m.get("board"));
+        u.found = (Boolean) m.get("found");
+        u.modified = (Boolean) m.get("modified");
+        return u;
+    }
+}
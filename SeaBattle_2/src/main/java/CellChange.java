@@ -0,0 +1,35 @@
+// Одна изменившаяся клетка в ответе getState/turn: выстрел по своему полю игрока (own)
+// или его собственный выстрел по полю противника. hit – попадание (X), иначе промах (*)
+public class CellChange {
+
+    private boolean own;
+    private String cell;
+    private boolean hit;
+
+    // для JAXB
+    public CellChange() {
+    }
+
+    public CellChange(boolean own, String cell, boolean hit) {
+        this.own = own;
+        this.cell = cell;
+        this.hit = hit;
+    }
+
+    public boolean isOwn() { return own; }
+
+    public void setOwn(boolean own) { this.own = own; }
+
+    public String getCell() { return cell; }
+
+    public void setCell(String cell) { this.cell = cell; }
+
+    public boolean isHit() { return hit; }
+
+    public void setHit(boolean hit) { this.hit = hit; }
+
+    @Override
+    public String toString() {
+        return (own ? "своё " : "чужое ") + cell + (hit ? " X" : " *");
+    }
+}
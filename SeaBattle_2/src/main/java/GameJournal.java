@@ -0,0 +1,530 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал партий: только дописывается, по нему после перезапуска восстанавливаются
+ * все незаконченные партии реестра.
+ *
+ * Журнал base – это снимок base.snapshot и сегменты base.1, base.2, ... Снимок хранит
+ * состояние всех живых партий и номер первого сегмента, который к нему ещё нужно применить;
+ * сегменты раньше него удаляются. Поэтому перезапуск читает снимок (по записи на живую
+ * партию) и короткий хвост после него, а не всю историю сервера.
+ *
+ * Сегмент – последовательность пачек [длина: int][CRC32: int][записи], по пачке на fsync.
+ * Записи (все числа – big-endian):
+ *   CREATE – [1][gameId: int][размер поля: 1 байт][число кораблей: short][длины: по байту][seed1: long][seed2: long]
+ *   JOIN   – [2][gameId][место]                – игрок занял место 1 или 2
+ *   SHOT   – [3][gameId][место][row][col]      – принятый движком выстрел
+ *   REMOVE – [4][gameId]                       – партия удалена из реестра
+ * Смена хода не пишется: она однозначно следует из выстрелов (переход хода только при промахе).
+ *
+ * Снимок – [первый сегмент: int][число партий: int][партии][CRC32 всего предыдущего: int],
+ * партия – [gameId][правила как в CREATE][seed1][seed2][игроков: 1 байт][чей ход: 1 байт]
+ * и по битовой маске size×size на игрока: в какие клетки он уже стрелял. Корабли
+ * восстанавливаются по seed, попадания и промахи – по маскам выстрелов, так что запись
+ * партии фиксированной длины и не растёт с числом ходов.
+ *
+ * Групповая запись: дописывание лишь кладёт запись в буфер, а отдельный поток забирает
+ * всё накопленное, пишет одним write и делает один fsync. Пока идёт fsync, копится
+ * следующая пачка, так что число fsync не растёт с числом выстрелов, а запись попадает
+ * на диск не позже чем через два fsync. При сбое теряется только этот хвост: пачка,
+ * которую не успели дописать, не сойдётся по CRC, и чтение на ней остановится, –
+ * партия восстановится на несколько выстрелов раньше, но в согласованном состоянии.
+ */
+final class GameJournal implements AutoCloseable {
+
+    private static final byte CREATE = 1;
+    private static final byte JOIN = 2;
+    private static final byte SHOT = 3;
+    private static final byte REMOVE = 4;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path base;
+
+    // в active дописывают игроки, flushing пишет на диск поток журнала; потом меняются местами
+    private final Object lock = new Object();
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer flushing = ByteBuffer.allocate(BUFFER_SIZE);
+    private long appendedBytes = 0;
+    private long durableBytes = 0;
+    private long syncs = 0;
+    private boolean closed = false;
+    private boolean failed = false;
+    // идёт смена сегмента – новые записи ждут
+    private boolean rotating = false;
+
+    // текущий сегмент; меняется только под lock, когда поток журнала всё записал
+    private FileChannel channel;
+    private int segment;
+
+    private final Thread writer;
+
+    private GameJournal(Path base, int segment) throws IOException {
+        this.base = base;
+        this.segment = segment;
+        this.channel = openSegment(base, segment);
+        writer = new Thread(this::writeLoop, "game-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Открывает журнал base. Партии из снимка и сегментов после него отдаются в restore –
+     * тот воссоздаёт их; сами они в журнал заново не пишутся, поэтому после восстановления
+     * нужно записать свежий снимок (rotate и writeSnapshot). До тех пор прежние сегменты
+     * остаются на диске, так что сбой во время восстановления ничего не теряет.
+     */
+    static GameJournal open(Path base, BiConsumer<GameJournal, LiveGame> restore) throws IOException {
+        Map<Integer, LiveGame> games = new LinkedHashMap<>();
+        int next = readSnapshot(snapshotFile(base), games);
+        for (int n : segments(base)) {
+            if (n < next) continue; // уже в снимке, удалится со следующим снимком
+            readSegment(segmentFile(base, n), games);
+            next = n + 1;
+        }
+
+        GameJournal journal = new GameJournal(base, next);
+        for (LiveGame game : games.values()) restore.accept(journal, game);
+        return journal;
+    }
+
+    /**
+     * Партия, которая была в реестре на момент последней записи журнала.
+     * Первые snapshotShots выстрелов записи взяты из снимка (в порядке клеток, а не ходов),
+     * остальные – из сегментов после него по порядку.
+     */
+    static final class LiveGame {
+        final int gameId;
+        final GameRecord record;
+        int players;
+        int currentPlayer; // 0 – партии нет в снимке, ход следует из выстрелов
+        int snapshotShots;
+
+        LiveGame(int gameId, GameRecord record) {
+            this.gameId = gameId;
+            this.record = record;
+        }
+    }
+
+    // Все партии: снимок и затем сегменты после него
+    static Collection<LiveGame> read(Path base) throws IOException {
+        Map<Integer, LiveGame> games = new LinkedHashMap<>();
+        int first = readSnapshot(snapshotFile(base), games);
+        for (int n : segments(base)) {
+            if (n >= first) readSegment(segmentFile(base, n), games);
+        }
+        return games.values();
+    }
+
+    // Номер первого сегмента после снимка; 1 – снимка ещё нет
+    private static int readSnapshot(Path file, Map<Integer, LiveGame> games) throws IOException {
+        if (!Files.exists(file)) return 1;
+        byte[] bytes = Files.readAllBytes(file);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, Math.max(bytes.length - 4, 0));
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        if (bytes.length < 12 || b.getInt(bytes.length - 4) != (int) crc.getValue())
+            throw new IOException("Снимок партий повреждён: " + file);
+
+        int first = b.getInt();
+        int count = b.getInt();
+        try {
+            for (int i = 0; i < count; i++) {
+                LiveGame game = readGame(b);
+                games.put(game.gameId, game);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Снимок партий не читается: " + file, e);
+        }
+        return first;
+    }
+
+    private static LiveGame readGame(ByteBuffer b) {
+        int gameId = b.getInt();
+        GameRules rules = readRules(b);
+        LiveGame game = new LiveGame(gameId, new GameRecord(rules, b.getLong(), b.getLong()));
+        game.players = b.get();
+        game.currentPlayer = b.get();
+
+        int size = rules.getSize();
+        byte[] shots = new byte[(size * size + 7) / 8];
+        for (int seat = 1; seat <= 2; seat++) {
+            b.get(shots);
+            for (int cell = 0; cell < size * size; cell++) {
+                if ((shots[cell >> 3] & 1 << (cell & 7)) != 0)
+                    game.record.addShot(seat, cell / size, cell % size);
+            }
+        }
+        game.snapshotShots = game.record.getShotCount();
+        return game;
+    }
+
+    // Партия в снимок; вызывается из GameSession под её блокировкой
+    static void writeGame(DataOutputStream out, int gameId, GameService game, GameRecord record,
+                          int players, int currentPlayer) throws IOException {
+        GameRules rules = record.getRules();
+        out.writeInt(gameId);
+        out.writeByte(rules.getSize());
+        out.writeShort(rules.shipCount());
+        for (int i = 0; i < rules.shipCount(); i++) out.writeByte(rules.shipLength(i));
+        out.writeLong(record.getFirstSeed());
+        out.writeLong(record.getSecondSeed());
+        out.writeByte(players);
+        out.writeByte(currentPlayer);
+
+        int size = rules.getSize();
+        byte[] shots = new byte[(size * size + 7) / 8];
+        for (int seat = 1; seat <= 2; seat++) {
+            Arrays.fill(shots, (byte) 0);
+            for (int cell = 0; cell < size * size; cell++) {
+                if (!game.canShoot(seat, cell / size, cell % size))
+                    shots[cell >> 3] |= 1 << (cell & 7);
+            }
+            out.write(shots);
+        }
+    }
+
+    // Записи сегмента по порядку до первой оборванной или испорченной пачки
+    private static void readSegment(Path file, Map<Integer, LiveGame> games) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            while (true) {
+                byte[] batch;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > BUFFER_SIZE) break;
+                    batch = new byte[length];
+                    in.readFully(batch);
+                    crc.reset();
+                    crc.update(batch, 0, length);
+                    if ((int) crc.getValue() != checksum) break;
+                } catch (EOFException e) {
+                    break;
+                }
+                if (!apply(ByteBuffer.wrap(batch), games)) break;
+            }
+        }
+    }
+
+    /**
+     * false – в пачке неизвестная запись (журнал писала другая версия сервера).
+     * Начало сегмента могло попасть и в снимок, поэтому записи применяются идемпотентно:
+     * CREATE уже известной партии пропускается, JOIN берёт наибольшее место, а выстрел,
+     * который уже есть в снимке, пропустит GameSession.restore.
+     */
+    private static boolean apply(ByteBuffer b, Map<Integer, LiveGame> games) {
+        try {
+            while (b.hasRemaining()) {
+                byte type = b.get();
+                int gameId = b.getInt();
+                LiveGame game = games.get(gameId);
+                switch (type) {
+                    case CREATE:
+                        GameRules rules = readRules(b);
+                        long firstSeed = b.getLong(), secondSeed = b.getLong();
+                        if (game == null)
+                            games.put(gameId, new LiveGame(gameId, new GameRecord(rules, firstSeed, secondSeed)));
+                        break;
+                    case JOIN:
+                        int joined = b.get();
+                        if (game != null) game.players = Math.max(game.players, joined);
+                        break;
+                    case SHOT:
+                        int seat = b.get(), row = b.get(), col = b.get();
+                        if (game != null) game.record.addShot(seat, row, col);
+                        break;
+                    case REMOVE:
+                        games.remove(gameId);
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static GameRules readRules(ByteBuffer b) {
+        int size = b.get() & 0xFF;
+        int[] fleet = new int[b.getShort() & 0xFFFF];
+        for (int i = 0; i < fleet.length; i++) fleet[i] = b.get() & 0xFF;
+        return new GameRules(size, fleet);
+    }
+
+    void created(int gameId, GameRules rules, long firstSeed, long secondSeed) {
+        synchronized (lock) {
+            ByteBuffer b = reserve(1 + 4 + 1 + 2 + rules.shipCount() + 16);
+            if (b == null) return;
+            b.put(CREATE).putInt(gameId).put((byte) rules.getSize()).putShort((short) rules.shipCount());
+            for (int i = 0; i < rules.shipCount(); i++) b.put((byte) rules.shipLength(i));
+            b.putLong(firstSeed).putLong(secondSeed);
+        }
+    }
+
+    void joined(int gameId, int seat) {
+        synchronized (lock) {
+            ByteBuffer b = reserve(6);
+            if (b == null) return;
+            b.put(JOIN).putInt(gameId).put((byte) seat);
+        }
+    }
+
+    void shot(int gameId, int seat, int row, int col) {
+        synchronized (lock) {
+            ByteBuffer b = reserve(8);
+            if (b == null) return;
+            b.put(SHOT).putInt(gameId).put((byte) seat).put((byte) row).put((byte) col);
+        }
+    }
+
+    void removed(int gameId) {
+        synchronized (lock) {
+            ByteBuffer b = reserve(5);
+            if (b == null) return;
+            b.put(REMOVE).putInt(gameId);
+        }
+    }
+
+    // Ждёт, пока всё дописанное до этого момента не окажется на диске
+    void sync() {
+        synchronized (lock) {
+            long target = appendedBytes;
+            boolean interrupted = false;
+            while (durableBytes < target && !failed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Начинает новый сегмент и возвращает его номер: всё дописанное до вызова уже на диске
+     * в прежних сегментах. Пока прежний сегмент дописывается, новые записи ждут – это
+     * не дольше двух fsync и бывает только перед снимком.
+     */
+    int rotate() throws IOException {
+        synchronized (lock) {
+            rotating = true;
+            boolean interrupted = false;
+            try {
+                while (durableBytes < appendedBytes && !failed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (closed || failed) throw new IOException("Журнал закрыт");
+                FileChannel next = openSegment(base, segment + 1);
+                channel.close();
+                channel = next;
+                return ++segment;
+            } finally {
+                rotating = false;
+                lock.notifyAll();
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Записывает снимок партий sessions и удаляет сегменты раньше first.
+     * first – номер из rotate, вызванного до того, как собран sessions: тогда любая партия
+     * из прежних сегментов уже есть в sessions, а то, что попало и в снимок, и в сегмент
+     * first, при чтении применится один раз (см. apply).
+     * Снимок пишется во временный файл и подменяет прежний одним переименованием.
+     * Не вызывать из нескольких потоков сразу.
+     */
+    void writeSnapshot(int first, Collection<GameSession> sessions) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        int count = 0;
+        for (GameSession session : sessions) {
+            session.writeSnapshot(out);
+            count++;
+        }
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(first).putInt(count);
+        ByteBuffer games = ByteBuffer.wrap(body.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(header.array());
+        crc.update(games.array());
+        ByteBuffer checksum = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+        header.flip();
+        checksum.flip();
+
+        Path snapshot = snapshotFile(base);
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel file = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, games, checksum};
+            while (checksum.hasRemaining()) file.write(parts);
+            file.force(true);
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (int n : segments(base)) {
+            if (n < first) Files.deleteIfExists(segmentFile(base, n));
+        }
+    }
+
+    // сколько раз журнал сбрасывался на диск
+    long getSyncs() {
+        synchronized (lock) {
+            return syncs;
+        }
+    }
+
+    long getDurableBytes() {
+        synchronized (lock) {
+            return durableBytes;
+        }
+    }
+
+    // Дописывает хвост на диск и закрывает файл
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+            synchronized (lock) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Журнал: " + e.getMessage());
+        }
+    }
+
+    // Под lock: место под запись длиной bytes; null – журнал закрыт или сломан
+    private ByteBuffer reserve(int bytes) {
+        boolean interrupted = false;
+        // буфер полон или меняется сегмент – ждём
+        while (!closed && !failed && (rotating || active.remaining() < bytes)) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (closed || failed) return null;
+        if (active.position() == 0) lock.notifyAll(); // будим поток журнала
+        appendedBytes += bytes; // вызывающий пишет ровно bytes, не отпуская lock
+        return active;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            FileChannel out;
+            synchronized (lock) {
+                while (active.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (active.position() == 0) return; // закрыт и всё записано
+                batch = active;
+                active = flushing;
+                flushing = batch;
+                out = channel;
+                lock.notifyAll(); // место освободилось
+            }
+
+            int bytes = batch.position();
+            try {
+                CRC32 crc = new CRC32();
+                crc.update(batch.array(), 0, bytes);
+                ByteBuffer header = ByteBuffer.allocate(8).putInt(bytes).putInt((int) crc.getValue());
+                header.flip();
+                batch.flip();
+                ByteBuffer[] parts = {header, batch};
+                while (batch.hasRemaining()) out.write(parts);
+                out.force(false);
+            } catch (IOException e) {
+                System.err.println("Журнал отключён, ошибка записи: " + e.getMessage());
+                synchronized (lock) {
+                    failed = true;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            batch.clear();
+
+            synchronized (lock) {
+                durableBytes += bytes;
+                syncs++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static FileChannel openSegment(Path base, int n) throws IOException {
+        return FileChannel.open(segmentFile(base, n), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static Path segmentFile(Path base, int n) {
+        return base.resolveSibling(base.getFileName() + "." + n);
+    }
+
+    private static Path snapshotFile(Path base) {
+        return base.resolveSibling(base.getFileName() + ".snapshot");
+    }
+
+    // Номера сегментов base.N по возрастанию
+    private static List<Integer> segments(Path base) throws IOException {
+        Path dir = base.toAbsolutePath().getParent();
+        String prefix = base.getFileName() + ".";
+        List<Integer> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit))
+                    numbers.add(Integer.parseInt(suffix));
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
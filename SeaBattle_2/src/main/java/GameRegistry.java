@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реестр партий: создаёт партии по мере регистрации игроков, сводит игроков в пары
+ * и удаляет законченные и заброшенные партии.
+ *
+ * Номер игрока кодирует и партию, и место в ней: playerId = gameId * 2 + seat,
+ * где seat – 1 или 2. Первая партия (gameId = 0) даёт привычные номера 1 и 2.
+ *
+ * С журналом (GameJournal) создание партий, подключения и выстрелы пишутся на диск,
+ * и после перезапуска сервера незаконченные партии восстанавливаются с теми же номерами.
+ * Раз в SNAPSHOT_PERIOD_MS поток обслуживания пишет снимок всех партий, и журнал до него
+ * удаляется, так что перезапуск читает снимок живых партий и хвост журнала за последний период.
+ */
+public class GameRegistry {
+
+    // законченная партия хранится ещё немного, чтобы игроки успели узнать результат
+    private static final long FINISHED_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    // партия без единого запроса считается брошенной
+    private static final long IDLE_TTL_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long SWEEP_PERIOD_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long SNAPSHOT_PERIOD_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final GameRules rules;
+    // null – без журнала, партии живут только в памяти
+    private final GameJournal journal;
+    private final ConcurrentHashMap<Integer, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGameId = new AtomicInteger();
+
+    // партия, в которой ждёт соперника один игрок
+    private final Object lobbyLock = new Object();
+    private GameSession waiting;
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "game-registry-sweeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public GameRegistry() {
+        this(GameRules.STANDARD);
+    }
+
+    // все партии реестра играются по одним правилам
+    public GameRegistry(GameRules rules) {
+        this.rules = rules;
+        this.journal = null;
+        Metrics.get().gauge("active_games", this::activeGames);
+        startSweeper();
+    }
+
+    // Восстанавливает партии из журнала journalFile и дальше пишет в него
+    public GameRegistry(GameRules rules, Path journalFile) throws IOException {
+        this.rules = rules;
+        this.journal = GameJournal.open(journalFile, this::restore);
+        // восстановленные партии в журнал не пишутся – сразу снимок, и старый журнал больше не нужен
+        snapshot();
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "game-journal-close"));
+        if (!games.isEmpty())
+            EventLog.get().log("journal_restored", "games", games.size());
+        Metrics.get().gauge("active_games", this::activeGames);
+        startSweeper();
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                EventLog.get().log("snapshot_failed", "error", e.getMessage());
+            }
+        }, SNAPSHOT_PERIOD_MS, SNAPSHOT_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Вызывается из GameJournal.open, поэтому журнал приходит параметром, а не из поля
+    private void restore(GameJournal journal, GameJournal.LiveGame live) {
+        GameSession session = GameSession.restore(live, journal);
+        games.put(session.getGameId(), session);
+        nextGameId.set(Math.max(nextGameId.get(), session.getGameId() + 1));
+        // игрок, ждавший соперника, ждёт и дальше
+        if (live.players == 1) waiting = session;
+    }
+
+    private void startSweeper() {
+        sweeper.scheduleWithFixedDelay(this::evictStale, SWEEP_PERIOD_MS, SWEEP_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Снимок всех партий; на потоке обслуживания, чтобы не пересекаться с evictStale
+    private void snapshot() throws IOException {
+        int first;
+        // новая партия попадает в games под тем же lobbyLock, под которым пишется её CREATE,
+        // поэтому каждая партия из сегментов до first уже будет в снимке
+        synchronized (lobbyLock) {
+            first = journal.rotate();
+        }
+        journal.writeSnapshot(first, games.values());
+    }
+
+    // Регистрирует игрока: подсаживает к ожидающему или открывает новую партию
+    public int registerPlayer() {
+        synchronized (lobbyLock) {
+            if (waiting != null) {
+                int seat = waiting.join();
+                GameSession session = waiting;
+                waiting = null;
+                if (seat != -1) return playerId(session.getGameId(), seat);
+            }
+
+            GameSession session = new GameSession(nextGameId.getAndIncrement(), rules, journal);
+            games.put(session.getGameId(), session);
+            int seat = session.join();
+            waiting = session;
+            return playerId(session.getGameId(), seat);
+        }
+    }
+
+    // Партия игрока или null, если её нет (неверный номер или партия уже удалена)
+    public GameSession find(int playerId) {
+        if (playerId < 1) return null;
+        return games.get(gameIdOf(playerId));
+    }
+
+    public int activeGames() {
+        return games.size();
+    }
+
+    public static int seatOf(int playerId) {
+        return (playerId - 1) % 2 + 1;
+    }
+
+    static int gameIdOf(int playerId) {
+        return (playerId - 1) / 2;
+    }
+
+    private static int playerId(int gameId, int seat) {
+        return gameId * 2 + seat;
+    }
+
+    private void evictStale() {
+        long now = System.currentTimeMillis();
+        Iterator<GameSession> it = games.values().iterator();
+        while (it.hasNext()) {
+            GameSession session = it.next();
+            long finishedAt = session.getFinishedAt();
+            boolean finished = finishedAt != 0 && now - finishedAt > FINISHED_TTL_MS;
+            boolean idle = now - session.getLastActivity() > IDLE_TTL_MS;
+            if (!finished && !idle) continue;
+
+            it.remove();
+            if (journal != null) journal.removed(session.getGameId());
+            synchronized (lobbyLock) {
+                if (waiting == session) waiting = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+public interface GameService {
+
+    enum ShotResult {
+        MISS,
+        HIT,
+        SUNK,
+        ALREADY_SHOT,
+        INVALID
+    }
+
+    // Корабль: первая клетка, длина и ориентация
+    final class Ship {
+        private final int row;
+        private final int col;
+        private final int length;
+        private final boolean horizontal;
+
+        public Ship(int row, int col, int length, boolean horizontal) {
+            this.row = row;
+            this.col = col;
+            this.length = length;
+            this.horizontal = horizontal;
+        }
+
+        public int getRow() { return row; }
+
+        public int getCol() { return col; }
+
+        public int getLength() { return length; }
+
+        public boolean isHorizontal() { return horizontal; }
+
+        public int cellRow(int i) { return horizontal ? row : row + i; }
+
+        public int cellCol(int i) { return horizontal ? col + i : col; }
+    }
+
+    ShotResult shoot(int playerId, int row, int col);
+
+    boolean canShoot(int playerId, int row, int col);
+
+    boolean isGameOver();
+
+    int getWinner();
+
+    // размер поля и флот партии
+    GameRules getRules();
+
+    String boardForPlayer(int playerId);
+
+    // Корабль, потопленный последним выстрелом с результатом SUNK, или null
+    Ship getLastSunkShip();
+
+    // Номер состояния: растёт с каждым принятым выстрелом и никогда не уменьшается.
+    // Пока он прежний, boardForPlayer отдаёт тот же текст
+    long getVersion();
+}
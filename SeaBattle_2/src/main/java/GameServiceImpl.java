@@ -0,0 +1,235 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Поле и флот задаются правилами (GameRules); память и отрисовка растут как size²
+public class GameServiceImpl implements GameService {
+
+    private static final String OWN_TITLE = "Ваши корабли:\n";
+    private static final String SHOTS_TITLE = "\nВаши выстрелы:\n";
+
+    private final GameRules rules;
+    private final int size;
+
+    // разметка boardForPlayer и где в ней начинается первая строка каждого поля
+    private final BoardText text;
+    private final int ownStart;
+    private final int shotsStart;
+
+    private final char[][][] shipBoards;
+    private final char[][][] shotBoards;
+
+    private final int[] cellsLeft = new int[2];
+
+    // номер корабля в клетке (-1 – нет корабля) и живые палубы каждого корабля
+    private final short[][][] shipIds;
+    private final int[][] decksLeft;
+
+    private final int[][] shipRows;
+    private final int[][] shipCols;
+    private final boolean[][] shipHorizontal;
+
+    private int lastSunkPlayer = -1;
+    private int lastSunkShip = -1;
+
+    // см. getVersion
+    private long version = 0;
+
+    // готовый текст boardForPlayer; shoot правит в нём одну клетку, строка собирается лениво
+    private final char[][] rendered = new char[2][];
+    private final String[] renderedText = new String[2];
+
+    public GameServiceImpl() {
+        this(GameRules.STANDARD);
+    }
+
+    // Фиксированный seed даёт одинаковую расстановку флота (нужно для сравнения движков)
+    public GameServiceImpl(long seed) {
+        this(GameRules.STANDARD, seed);
+    }
+
+    public GameServiceImpl(GameRules rules) {
+        this(rules, ThreadLocalRandom.current().nextLong());
+    }
+
+    public GameServiceImpl(GameRules rules, long seed) {
+        this(rules, new SplittableRandom(seed));
+    }
+
+    // seed обоих флотов берутся из random
+    public GameServiceImpl(GameRules rules, SplittableRandom random) {
+        this(rules, new FleetPlacer(rules), random);
+    }
+
+    private GameServiceImpl(GameRules rules, FleetPlacer placer, SplittableRandom random) {
+        this(rules, placer.place(random.nextLong()), placer.place(random.nextLong()));
+    }
+
+    // готовые расстановки, например из FleetPool
+    public GameServiceImpl(GameRules rules, FleetLayout first, FleetLayout second) {
+        this.rules = rules;
+        this.size = rules.getSize();
+        int ships = rules.shipCount();
+
+        text = BoardText.of(size);
+        ownStart = OWN_TITLE.length() + text.headerLength();
+        shotsStart = ownStart + size * text.rowLength() + SHOTS_TITLE.length() + text.headerLength();
+
+        shipBoards = new char[2][size][size];
+        shotBoards = new char[2][size][size];
+        shipIds = new short[2][size][size];
+        decksLeft = new int[2][ships];
+        shipRows = new int[2][ships];
+        shipCols = new int[2][ships];
+        shipHorizontal = new boolean[2][ships];
+
+        initBoards();
+        placeFleet(0, first);
+        placeFleet(1, second);
+        for (int p = 0; p < 2; p++)
+            rendered[p] = renderFull(p + 1).toCharArray();
+    }
+
+    private void initBoards() {
+        for (int p = 0; p < 2; p++)
+            for (int r = 0; r < size; r++)
+                for (int c = 0; c < size; c++) {
+                    shipBoards[p][r][c] = '~';
+                    shotBoards[p][r][c] = '~';
+                    shipIds[p][r][c] = -1;
+                }
+    }
+
+    private void placeFleet(int playerIndex, FleetLayout layout) {
+        if (layout.getSize() != size || layout.shipCount() != rules.shipCount())
+            throw new IllegalArgumentException("Расстановка не для правил " + rules);
+        for (int s = 0; s < rules.shipCount(); s++)
+            placeShip(playerIndex, s, layout.row(s), layout.col(s), rules.shipLength(s), layout.isHorizontal(s));
+        cellsLeft[playerIndex] = rules.getTotalDecks();
+    }
+
+    private void placeShip(int p, int ship, int row, int col, int len, boolean horiz) {
+        int dr = horiz ? 0 : 1;
+        int dc = horiz ? 1 : 0;
+        for (int i = 0; i < len; i++) {
+            shipBoards[p][row + dr * i][col + dc * i] = 'O';
+            shipIds[p][row + dr * i][col + dc * i] = (short) ship;
+        }
+        decksLeft[p][ship] = len;
+        shipRows[p][ship] = row;
+        shipCols[p][ship] = col;
+        shipHorizontal[p][ship] = horiz;
+    }
+
+    @Override
+    public ShotResult shoot(int playerId, int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size)
+            return ShotResult.INVALID;
+
+        int shooter = playerId - 1;
+        int victim = 1 - shooter;
+
+        if (shotBoards[shooter][row][col] != '~')
+            return ShotResult.ALREADY_SHOT;
+
+        version++;
+        char target = shipBoards[victim][row][col];
+
+        if (target == 'O') {
+            shipBoards[victim][row][col] = 'X';
+            shotBoards[shooter][row][col] = 'X';
+            cellsLeft[victim]--;
+            patch(victim, ownStart, row, col, 'X');
+            patch(shooter, shotsStart, row, col, 'X');
+
+            int ship = shipIds[victim][row][col];
+            if (--decksLeft[victim][ship] == 0) {
+                lastSunkPlayer = victim;
+                lastSunkShip = ship;
+                return ShotResult.SUNK;
+            }
+            return ShotResult.HIT;
+
+        } else {
+            shipBoards[victim][row][col] = '*';
+            shotBoards[shooter][row][col] = '*';
+            patch(victim, ownStart, row, col, '*');
+            patch(shooter, shotsStart, row, col, '*');
+            return ShotResult.MISS;
+        }
+    }
+
+    @Override
+    public boolean canShoot(int playerId, int row, int col) {
+        return shotBoards[playerId - 1][row][col] == '~';
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return cellsLeft[0] == 0 || cellsLeft[1] == 0;
+    }
+
+    @Override
+    public int getWinner() {
+        if (!isGameOver()) return 0;
+        return cellsLeft[0] == 0 ? 2 : 1;
+    }
+
+    @Override
+    public GameRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public Ship getLastSunkShip() {
+        if (lastSunkShip < 0) return null;
+        int p = lastSunkPlayer, s = lastSunkShip;
+        return new Ship(shipRows[p][s], shipCols[p][s], rules.shipLength(s), shipHorizontal[p][s]);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    // Под read lock GameSession зовётся параллельно: гонка лишь соберёт строку дважды
+    @Override
+    public String boardForPlayer(int playerId) {
+        int idx = playerId - 1;
+        String text = renderedText[idx];
+        if (text == null) {
+            text = new String(rendered[idx]);
+            renderedText[idx] = text;
+        }
+        return text;
+    }
+
+    private void patch(int p, int start, int row, int col, char ch) {
+        rendered[p][start + text.cellOffset(row, col)] = ch;
+        renderedText[p] = null;
+    }
+
+    // отрисовка с нуля – начальный текст и эталон для сравнения с кэшем
+    String renderFull(int playerId) {
+        int idx = playerId - 1;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(OWN_TITLE);
+        render(sb, shipBoards[idx], true);
+        sb.append(SHOTS_TITLE);
+        render(sb, shotBoards[idx], false);
+        return sb.toString();
+    }
+
+    private void render(StringBuilder sb, char[][] board, boolean showShips) {
+        text.appendHeader(sb);
+        for (int r = 0; r < size; r++) {
+            text.appendRowStart(sb, r);
+            for (int c = 0; c < size; c++) {
+                char ch = board[r][c];
+                if (!showShips && ch == 'O') ch = '~';
+                text.appendCell(sb, ch);
+            }
+            sb.append("\n");
+        }
+    }
+}
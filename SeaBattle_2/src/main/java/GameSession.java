@@ -0,0 +1,420 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Одна партия на сервере: движок, места игроков и чей сейчас ход.
+ *
+ * У каждой партии своя блокировка: ход и подключение берут запись, отрисовка поля – чтение.
+ * Вопросы «мой ход?», «игра окончена?», «кто победил?» читаются из неизменяемого снимка
+ * состояния и вообще не блокируются.
+ */
+public class GameSession {
+
+    // Метрики всех партий (см. Metrics)
+    private static final LongAdder[] SHOTS = new LongAdder[GameService.ShotResult.values().length];
+    // shoot целиком, с ожиданием блокировки партии
+    private static final LatencyHistogram SHOT_LATENCY = Metrics.get().histogram("shot_latency_ns");
+    // от передачи хода (промах соперника или приход второго игрока) до выстрела нового игрока
+    private static final LatencyHistogram TURN_HANDOFF = Metrics.get().histogram("turn_handoff_ns");
+
+    static {
+        for (GameService.ShotResult res : GameService.ShotResult.values())
+            SHOTS[res.ordinal()] = Metrics.get().counter("shots_total{result=\"" + res + "\"}");
+    }
+
+    // Неизменяемый снимок того, что нужно опрашивающим клиентам
+    private static final class State {
+        final int players;
+        final int currentPlayer;
+        final boolean gameOver;
+        final int winner;
+
+        State(int players, int currentPlayer, boolean gameOver, int winner) {
+            this.players = players;
+            this.currentPlayer = currentPlayer;
+            this.gameOver = gameOver;
+            this.winner = winner;
+        }
+    }
+
+    private final int gameId;
+    private final GameService game;
+    // расстановки игроков – для клеток своих кораблей в полном состоянии
+    private final FleetLayout[] layouts;
+    // seed расстановок и выстрелы – по ним партию можно повторить
+    private final GameRecord record;
+    // бит i – выстрел i из record попал (для изменившихся клеток в getState)
+    private final BitSet hits = new BitSet();
+    // столько первых выстрелов record восстановлено из снимка – они в порядке клеток, а не ходов
+    private int restoredShots = 0;
+    // null – партия не журналируется; восстановленной партии журнал ставится после восстановления
+    private GameJournal journal;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // сигнал ждущим своего хода: состояние партии изменилось
+    private final Condition changed = lock.writeLock().newCondition();
+
+    // меняются только под блокировкой записи
+    private int players = 0;
+    private int currentPlayer = 1;
+    // System.nanoTime() передачи хода; 0 – ход не передавался с прошлого выстрела
+    private long handoffAt = 0;
+
+    private volatile State state = new State(0, 1, false, 0);
+
+    private volatile long lastActivity = System.currentTimeMillis();
+    private volatile long finishedAt = 0;
+
+    public GameSession(int gameId) {
+        this(gameId, GameRules.STANDARD);
+    }
+
+    public GameSession(int gameId, GameRules rules) {
+        this(gameId, rules, (GameJournal) null);
+    }
+
+    GameSession(int gameId, GameRules rules, GameJournal journal) {
+        this(gameId, rules, FleetPool.of(rules), journal);
+    }
+
+    // флоты заранее расставлены в общем запасе
+    private GameSession(int gameId, GameRules rules, FleetPool pool, GameJournal journal) {
+        this(gameId, rules, pool.take(), pool.take(), journal);
+    }
+
+    // заданные расстановки – для повторяемых тестов
+    GameSession(int gameId, GameRules rules, FleetLayout first, FleetLayout second) {
+        this(gameId, rules, first, second, null);
+    }
+
+    GameSession(int gameId, GameRules rules, FleetLayout first, FleetLayout second, GameJournal journal) {
+        this.gameId = gameId;
+        this.game = new GameServiceImpl(rules, first, second);
+        this.layouts = new FleetLayout[]{first, second};
+        this.record = new GameRecord(rules, first, second);
+        this.journal = journal;
+        if (journal != null) journal.created(gameId, rules, first.getSeed(), second.getSeed());
+    }
+
+    // Партия из журнала: те же расстановки, игроки и выстрелы. Сама она в журнал
+    // не пишется – её сохранит следующий снимок (GameJournal.writeSnapshot)
+    static GameSession restore(GameJournal.LiveGame live, GameJournal journal) {
+        GameRecord saved = live.record;
+        GameRules rules = saved.getRules();
+        FleetPlacer placer = new FleetPlacer(rules);
+        GameSession session = new GameSession(live.gameId, rules,
+                placer.place(saved.getFirstSeed()), placer.place(saved.getSecondSeed()));
+        session.lock.writeLock().lock();
+        try {
+            session.players = live.players;
+            // выстрелы из снимка идут не по порядку ходов, поэтому прямо в движок, а ход – из снимка
+            for (int i = 0; i < live.snapshotShots; i++)
+                session.applyShot(saved.shotPlayer(i), saved.shotRow(i), saved.shotCol(i));
+            session.restoredShots = live.snapshotShots;
+            if (live.currentPlayer != 0) session.currentPlayer = live.currentPlayer;
+            // хвост после снимка – по порядку ходов, с передачей хода на промахе, но прямо в движок:
+            // эти выстрелы уже были посчитаны в метриках и журнале событий до перезапуска.
+            // Что уже есть в снимке, пропускаем
+            for (int i = live.snapshotShots; i < saved.getShotCount(); i++) {
+                int seat = saved.shotPlayer(i), r = saved.shotRow(i), c = saved.shotCol(i);
+                if (session.game.isGameOver() || !session.game.canShoot(seat, r, c)) continue;
+                if (session.applyShot(seat, r, c) == GameService.ShotResult.MISS)
+                    session.currentPlayer = 3 - seat;
+            }
+            if (session.game.isGameOver() && session.finishedAt == 0)
+                session.finishedAt = System.currentTimeMillis();
+            session.publish();
+            session.journal = journal;
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+        return session;
+    }
+
+    // Состояние партии в снимок журнала: не дольше блокировки чтения, как отрисовка поля
+    void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            GameJournal.writeGame(out, gameId, game, record, players, currentPlayer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    // Занять следующее место: 1 или 2, -1 – партия уже заполнена
+    public int join() {
+        lock.writeLock().lock();
+        try {
+            if (players >= 2) return -1;
+            players++;
+            if (players == 2) handoffAt = System.nanoTime();
+            if (journal != null) journal.joined(gameId, players);
+            touch();
+            publish();
+            return players;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFull() {
+        return state.players == 2;
+    }
+
+    public String getBoard(int seat) {
+        lock.readLock().lock();
+        try {
+            touch();
+            return game.boardForPlayer(seat);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Поле, только если партия изменилась после knownVersion (версия из прошлого ответа):
+    // опрос без изменений не собирает и не пересылает текст поля
+    public BoardUpdate getBoard(int seat, long knownVersion) {
+        lock.readLock().lock();
+        try {
+            touch();
+            long version = version();
+            return new BoardUpdate(version, version == knownVersion ? null : game.boardForPlayer(seat));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String shoot(int seat, String coord) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            return doShoot(seat, coord);
+        } finally {
+            lock.writeLock().unlock();
+            SHOT_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    // Выстрел и состояние после него одним действием: между ними никто не вклинится
+    public GameState turn(int seat, String coord, long sinceVersion) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            String result = doShoot(seat, coord);
+            GameState s = state(seat, sinceVersion);
+            s.setResult(result);
+            return s;
+        } finally {
+            lock.writeLock().unlock();
+            SHOT_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    // Состояние для игрока seat и клетки, изменившиеся после версии sinceVersion
+    public GameState getState(int seat, long sinceVersion) {
+        lock.readLock().lock();
+        try {
+            touch();
+            return state(seat, sinceVersion);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // awaitMyTurn и getState одним вызовом: ждёт своего хода или конца игры не дольше timeoutMs
+    public GameState awaitState(int seat, long sinceVersion, long timeoutMs) throws InterruptedException {
+        awaitMyTurn(seat, timeoutMs);
+        return getState(seat, sinceVersion);
+    }
+
+    private String doShoot(int seat, String coord) {
+        touch();
+
+        if (game.isGameOver())
+            return "Игра окончена! Победил игрок " + game.getWinner();
+
+        if (players < 2)
+            return "Ждём второго игрока!";
+
+        if (seat != currentPlayer)
+            return "Сейчас ход другого игрока!";
+
+        int[] rc = game.getRules().parseCoord(coord);
+        if (rc == null) return "Неверный формат. Пример: A5";
+
+        int r = rc[0], c = rc[1];
+
+        if (!game.canShoot(seat, r, c))
+            return "В эту клетку уже стреляли!";
+
+        if (handoffAt != 0) {
+            TURN_HANDOFF.record(System.nanoTime() - handoffAt);
+            handoffAt = 0;
+        }
+        GameService.ShotResult res = applyShot(seat, r, c);
+        if (journal != null) journal.shot(gameId, seat, r, c);
+        SHOTS[res.ordinal()].increment();
+
+        String txt = toText(res);
+        if (res == GameService.ShotResult.SUNK)
+            txt += " (" + shipToText(game.getLastSunkShip()) + ")";
+
+        // смена хода только при промахе
+        if (res == GameService.ShotResult.MISS) {
+            currentPlayer = (currentPlayer == 1 ? 2 : 1);
+            handoffAt = System.nanoTime();
+        }
+
+        publish();
+
+        if (game.isGameOver()) {
+            finishedAt = System.currentTimeMillis();
+            // по записи партию можно повторить: java GameRecord "запись"
+            EventLog.get().log("game_over", "game", gameId, "winner", game.getWinner(),
+                    "shots", record.getShotCount(), "record", record);
+            return txt + " Игра окончена! Победил игрок " + game.getWinner();
+        }
+
+        return txt;
+    }
+
+    // Ход есть только когда оба игрока на месте
+    public boolean isMyTurn(int seat) {
+        State s = state;
+        return s.players == 2 && !s.gameOver && s.currentPlayer == seat;
+    }
+
+    /**
+     * Ждёт, пока не наступит ход игрока или не кончится игра, но не дольше timeoutMs.
+     * Возвращает то же, что isMyTurn в момент выхода.
+     */
+    public boolean awaitMyTurn(int seat, long timeoutMs) throws InterruptedException {
+        if (isMyTurn(seat) || state.gameOver) return isMyTurn(seat);
+
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.writeLock().lock();
+        try {
+            while (!isMyTurn(seat) && !state.gameOver && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+            return isMyTurn(seat);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isGameOver() {
+        return state.gameOver;
+    }
+
+    // Запись партии на текущий момент (см. GameRecord)
+    public String getRecord() {
+        lock.readLock().lock();
+        try {
+            return record.toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getWinner() {
+        return state.winner;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    // 0 – партия ещё идёт
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Под блокировкой записи: выстрел в движок и в запись партии
+    private GameService.ShotResult applyShot(int seat, int r, int c) {
+        GameService.ShotResult res = game.shoot(seat, r, c);
+        if (res == GameService.ShotResult.HIT || res == GameService.ShotResult.SUNK)
+            hits.set(record.getShotCount());
+        record.addShot(seat, r, c);
+        return res;
+    }
+
+    // Номер состояния: растёт на 1 с каждым игроком и каждым выстрелом (версия движка).
+    // Игроки приходят раньше первого выстрела, поэтому выстрел i переводит партию в версию 3 + i
+    private long version() {
+        return players + game.getVersion();
+    }
+
+    // Под любой блокировкой
+    private GameState state(int seat, long sinceVersion) {
+        GameState s = new GameState();
+        long version = version();
+        s.setVersion(version);
+        s.setSeat(seat);
+        s.setCurrentPlayer(currentPlayer);
+        s.setGameOver(game.isGameOver());
+        s.setWinner(game.getWinner());
+        s.setMyTurn(players == 2 && !game.isGameOver() && currentPlayer == seat);
+        s.setSize(game.getRules().getSize());
+
+        int from = (int) Math.max(0, sinceVersion - 2);
+        // чужая или будущая версия – отдаём всё с начала; так же и для версии из середины
+        // восстановленного снимка: по выстрелам в порядке клеток нельзя понять, какие клиент уже видел
+        if (sinceVersion < 0 || sinceVersion > version || from < restoredShots) {
+            s.setFull(true);
+            from = 0;
+            FleetLayout own = layouts[seat - 1];
+            for (int ship = 0; ship < own.shipCount(); ship++) {
+                int len = game.getRules().shipLength(ship);
+                for (int i = 0; i < len; i++) {
+                    int r = own.row(ship) + (own.isHorizontal(ship) ? 0 : i);
+                    int c = own.col(ship) + (own.isHorizontal(ship) ? i : 0);
+                    s.getShips().add(GameRules.coordToString(r, c));
+                }
+            }
+        }
+        for (int i = from; i < record.getShotCount(); i++) {
+            s.getChanges().add(new CellChange(record.shotPlayer(i) != seat,
+                    GameRules.coordToString(record.shotRow(i), record.shotCol(i)), hits.get(i)));
+        }
+        return s;
+    }
+
+    // Вызывается под блокировкой записи после каждого изменения
+    private void publish() {
+        state = new State(players, currentPlayer, game.isGameOver(), game.getWinner());
+        changed.signalAll();
+    }
+
+    private void touch() {
+        lastActivity = System.currentTimeMillis();
+    }
+
+    // Например: "3-палубный, B2-B4"
+    private String shipToText(GameService.Ship ship) {
+        int last = ship.getLength() - 1;
+        String cells = GameRules.coordToString(ship.getRow(), ship.getCol());
+        if (last > 0)
+            cells += "-" + GameRules.coordToString(ship.cellRow(last), ship.cellCol(last));
+        return ship.getLength() + "-палубный, " + cells;
+    }
+
+    private String toText(GameService.ShotResult res) {
+        switch (res) {
+            case MISS: return "Мимо";
+            case HIT: return "Попадание";
+            case SUNK: return "Корабль потоплен";
+            case ALREADY_SHOT: return "Уже стреляли";
+            default: return res.toString();
+        }
+    }
+}
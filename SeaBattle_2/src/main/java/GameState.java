@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Всё, что нужно клиенту на ход, одним ответом (операции getState и turn):
+// чей ход, конец игры, победитель, результат выстрела и изменившиеся клетки.
+//
+// version – номер состояния партии; его клиент передаёт в следующий запрос, и в changes
+// приходят только клетки, изменившиеся после него (ничего не изменилось – список пуст).
+// full – клиент прислал версию, которой у партии нет (например -1 при первом запросе),
+// поэтому в changes все выстрелы партии с начала, а в ships – клетки своих кораблей:
+// из полного ответа и следующих изменений клиент рисует поле сам, без getBoard
+public class GameState {
+
+    private long version;
+    private int seat;
+    private int currentPlayer;
+    private boolean myTurn;
+    private boolean gameOver;
+    private int winner;
+    // текст выстрела для turn (как у shoot), для getState – null
+    private String result;
+    private boolean full;
+    private int size;
+    // только в полном ответе
+    private List<String> ships = new ArrayList<>();
+    private List<CellChange> changes = new ArrayList<>();
+
+    // для JAXB
+    public GameState() {
+    }
+
+    // Игрока нет (или его партия уже удалена): для клиента игра окончена
+    static GameState noGame(String result) {
+        GameState s = new GameState();
+        s.gameOver = true;
+        s.full = true;
+        s.result = result;
+        return s;
+    }
+
+    public long getVersion() { return version; }
+
+    public void setVersion(long version) { this.version = version; }
+
+    public int getSeat() { return seat; }
+
+    public void setSeat(int seat) { this.seat = seat; }
+
+    public int getCurrentPlayer() { return currentPlayer; }
+
+    public void setCurrentPlayer(int currentPlayer) { this.currentPlayer = currentPlayer; }
+
+    public boolean isMyTurn() { return myTurn; }
+
+    public void setMyTurn(boolean myTurn) { this.myTurn = myTurn; }
+
+    public boolean isGameOver() { return gameOver; }
+
+    public void setGameOver(boolean gameOver) { this.gameOver = gameOver; }
+
+    public int getWinner() { return winner; }
+
+    public void setWinner(int winner) { this.winner = winner; }
+
+    public String getResult() { return result; }
+
+    public void setResult(String result) { this.result = result; }
+
+    public boolean isFull() { return full; }
+
+    public void setFull(boolean full) { this.full = full; }
+
+    public int getSize() { return size; }
+
+    public void setSize(int size) { this.size = size; }
+
+    public List<String> getShips() { return ships; }
+
+    public void setShips(List<String> ships) { this.ships = ships; }
+
+    public List<CellChange> getChanges() { return changes; }
+
+    public void setChanges(List<CellChange> changes) { this.changes = changes; }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder(96 + changes.size() * 32);
+        sb.append("{\"version\":").append(version)
+                .append(",\"seat\":").append(seat)
+                .append(",\"currentPlayer\":").append(currentPlayer)
+                .append(",\"myTurn\":").append(myTurn)
+                .append(",\"gameOver\":").append(gameOver)
+                .append(",\"winner\":").append(winner)
+                .append(",\"result\":").append(result == null ? "null" : Json.quote(result))
+                .append(",\"full\":").append(full)
+                .append(",\"size\":").append(size)
+                .append(",\"ships\":[");
+        for (int i = 0; i < ships.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(Json.quote(ships.get(i)));
+        }
+        sb.append("],\"changes\":[");
+        for (int i = 0; i < changes.size(); i++) {
+            CellChange c = changes.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"own\":").append(c.isOwn())
+                    .append(",\"cell\":").append(Json.quote(c.getCell()))
+                    .append(",\"hit\":").append(c.isHit()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    static GameState fromJson(String json) {
+        Map<String, Object> m = (Map<String, Object>) Json.parse(json);
+        GameState s = new GameState();
+        s.version = (Long) m.get("version");
+        s.seat = ((Long) m.get("seat")).intValue();
+        s.currentPlayer = ((Long) m.get("currentPlayer")).intValue();
+        s.myTurn = (Boolean) m.get("myTurn");
+        s.gameOver = (Boolean) m.get("gameOver");
+        s.winner = ((Long) m.get("winner")).intValue();
+        s.result = (String) m.get("result");
+        s.full = (Boolean) m.get("full");
+        s.size = ((Long) m.get("size")).intValue();
+        for (Object o : (List<Object>) m.get("ships")) s.ships.add((String) o);
+        for (Object o : (List<Object>) m.get("changes")) {
+            Map<String, Object> c = (Map<String, Object>) o;
+            s.changes.add(new CellChange((Boolean) c.get("own"), (String) c.get("cell"), (Boolean) c.get("hit")));
+        }
+        return s;
+    }
+}
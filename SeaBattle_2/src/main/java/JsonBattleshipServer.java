@@ -0,0 +1,193 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Те же операции, что у BattleshipWebService, но без SOAP: простой HTTP на com.sun.net.httpserver.
+//
+//   GET /api/<операция>?playerId=3&coord=A5   ->   {"result":"Мимо"}
+//
+// Параметры – как у операций (playerId, coord, timeoutMs, sinceVersion, knownVersion), ответ – JSON с полем result
+// (у getState, awaitState и turn это объект GameState, у getBoardIfChanged – BoardUpdate);
+// ошибка – {"error":"…"} с кодом 400 (нет параметра), 404 (нет операции) или 500 (сбой на сервере).
+// getBoard отдаёт версию партии в ETag (партии нет – 404); с If-None-Match этой же версии ответ – 304 без тела,
+// пока партия не изменилась (то же, что getBoardIfChanged с knownVersion, но средствами HTTP).
+// Сервер ходит в тот же BattleshipWebServiceImpl, что и SOAP, поэтому партии и реестр у них общие:
+// один игрок может играть через SOAP, другой – через JSON. Клиент – JsonServicePort
+public class JsonBattleshipServer {
+
+    private static final LatencyHistogram LATENCY = Metrics.get().histogram("json_request_latency_ns");
+
+    private final BattleshipWebService service;
+    private final HttpServer server;
+
+    // executor обслуживает запросы; awaitMyTurn и awaitState держат поток, пока игрок ждёт хода,
+    // так что пул должен быть не меньше числа ждущих игроков (или неограниченным)
+    public JsonBattleshipServer(BattleshipWebService service, int port, Executor executor) throws IOException {
+        // без TCP_NODELAY ответ keep-alive ждёт подтверждения клиента ~40 мс (алгоритм Нейгла);
+        // настройки сервер JDK читает один раз, при создании первого HttpServer в процессе
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String op = exchange.getRequestURI().getPath().substring("/api/".length());
+        int status = 200;
+        String body;
+        try {
+            Map<String, String> params = query(exchange.getRequestURI().getRawQuery());
+            if (op.equals("getBoard")) {
+                board(exchange, params, start);
+                return;
+            }
+            String result = call(op, params);
+            if (result == null) {
+                status = 404;
+                body = error("Неизвестная операция: " + op);
+            } else {
+                body = "{\"result\":" + result + "}";
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            // иначе обмен бросается без ответа и клиент висит до таймаута
+            status = 500;
+            body = error(e.toString());
+            EventLog.get().log("json_error", "operation", op, "error", e.toString());
+        }
+
+        send(exchange, status, body, start);
+    }
+
+    // getBoard с условным запросом: ETag – версия партии, If-None-Match – версия, что уже есть у клиента
+    private void board(HttpExchange exchange, Map<String, String> params, long start) throws IOException {
+        String known = exchange.getRequestHeaders().getFirst("If-None-Match");
+        BoardUpdate update = service.getBoardIfChanged(playerId(params), known != null ? etagVersion(known) : -1);
+        if (!update.isFound()) {
+            send(exchange, 404, error("Игра не найдена"), start);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", "\"" + update.getVersion() + "\"");
+        if (!update.isModified()) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            LATENCY.record(System.nanoTime() - start);
+            return;
+        }
+        send(exchange, 200, "{\"result\":" + Json.quote(update.getBoard()) + "}", start);
+    }
+
+    private static void send(HttpExchange exchange, int status, String body, long start) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        LATENCY.record(System.nanoTime() - start);
+    }
+
+    // "17" или W/"17"; чужой ETag – как будто версии нет
+    private static long etagVersion(String etag) {
+        String s = etag.trim();
+        if (s.startsWith("W/")) s = s.substring(2);
+        if (s.length() > 1 && s.startsWith("\"") && s.endsWith("\"")) s = s.substring(1, s.length() - 1);
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Результат операции как значение JSON; null – операции нет
+    private String call(String op, Map<String, String> params) {
+        switch (op) {
+            case "registerPlayer": return Integer.toString(service.registerPlayer());
+            case "getSeat": return Integer.toString(service.getSeat(playerId(params)));
+            case "getBoardIfChanged":
+                return service.getBoardIfChanged(playerId(params), number(params, "knownVersion")).toJson();
+            case "shoot": return Json.quote(service.shoot(playerId(params), param(params, "coord")));
+            case "isMyTurn": return Boolean.toString(service.isMyTurn(playerId(params)));
+            case "awaitMyTurn":
+                return Boolean.toString(service.awaitMyTurn(playerId(params), number(params, "timeoutMs")));
+            case "awaitState":
+                return service.awaitState(playerId(params), number(params, "sinceVersion"), number(params, "timeoutMs")).toJson();
+            case "isGameOverFor": return Boolean.toString(service.isGameOverFor(playerId(params)));
+            case "getWinnerFor": return Integer.toString(service.getWinnerFor(playerId(params)));
+            case "getState":
+                return service.getState(playerId(params), number(params, "sinceVersion")).toJson();
+            case "turn":
+                return service.turn(playerId(params), param(params, "coord"), number(params, "sinceVersion")).toJson();
+            case "isGameOver": return Boolean.toString(service.isGameOver());
+            case "getWinner": return Integer.toString(service.getWinner());
+            default: return null;
+        }
+    }
+
+    private static int playerId(Map<String, String> params) {
+        return (int) number(params, "playerId");
+    }
+
+    private static long number(Map<String, String> params, String name) {
+        try {
+            return Long.parseLong(param(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом");
+        }
+    }
+
+    private static String param(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) throw new IllegalArgumentException("Нет параметра " + name);
+        return value;
+    }
+
+    // a=1&b=x%20y -> {a=1, b=x y}
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+        }
+        return params;
+    }
+
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(String.valueOf(message)) + "}";
+    }
+}
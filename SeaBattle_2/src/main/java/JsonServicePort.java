@@ -0,0 +1,166 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Клиент JsonBattleshipServer с тем же интерфейсом, что и SOAP-порт: код клиента не знает,
+// каким транспортом он ходит. HttpURLConnection держит соединения открытыми (keep-alive),
+// так что запрос – это одна строка туда и короткий JSON обратно.
+// getBoard помнит последнее поле каждого игрока и спрашивает его с If-None-Match:
+// пока партия не изменилась, сервер отвечает 304 без тела, а поле берётся из памяти.
+// Можно вызывать из нескольких потоков
+public class JsonServicePort implements BattleshipWebService {
+
+    // например http://localhost:8081/api/
+    private final String base;
+    // последнее поле и его версия (ETag) по номеру игрока
+    private final Map<Integer, BoardUpdate> boards = new ConcurrentHashMap<>();
+
+    public JsonServicePort(String base) {
+        this.base = base.endsWith("/") ? base : base + "/";
+    }
+
+    @Override
+    public int registerPlayer() {
+        return Integer.parseInt(call("registerPlayer"));
+    }
+
+    @Override
+    public int getSeat(int playerId) {
+        return Integer.parseInt(call("getSeat?playerId=" + playerId));
+    }
+
+    @Override
+    public String getBoard(int playerId) {
+        BoardUpdate cached = boards.get(playerId);
+        try {
+            HttpURLConnection conn = open("getBoard?playerId=" + playerId);
+            if (cached != null) conn.setRequestProperty("If-None-Match", "\"" + cached.getVersion() + "\"");
+            int status = conn.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                readAll(conn.getInputStream());
+                return cached.getBoard();
+            }
+            // партии нет – текст ошибки, как getBoard по SOAP
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                boards.remove(playerId);
+                return (String) ((Map<?, ?>) Json.parse(readAll(conn.getErrorStream()))).get("error");
+            }
+            String board = unquote(result(conn));
+            String etag = conn.getHeaderField("ETag");
+            if (etag != null) boards.put(playerId, new BoardUpdate(Long.parseLong(etag.replace("\"", "")), board));
+            return board;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BoardUpdate getBoardIfChanged(int playerId, long knownVersion) {
+        return BoardUpdate.fromJson(call("getBoardIfChanged?playerId=" + playerId + "&knownVersion=" + knownVersion));
+    }
+
+    @Override
+    public String shoot(int playerId, String coord) {
+        return unquote(call("shoot?playerId=" + playerId + "&coord=" + encode(coord)));
+    }
+
+    @Override
+    public boolean isMyTurn(int playerId) {
+        return Boolean.parseBoolean(call("isMyTurn?playerId=" + playerId));
+    }
+
+    @Override
+    public boolean awaitMyTurn(int playerId, long timeoutMs) {
+        return Boolean.parseBoolean(call("awaitMyTurn?playerId=" + playerId + "&timeoutMs=" + timeoutMs));
+    }
+
+    @Override
+    public GameState awaitState(int playerId, long sinceVersion, long timeoutMs) {
+        return GameState.fromJson(call("awaitState?playerId=" + playerId + "&sinceVersion=" + sinceVersion
+                + "&timeoutMs=" + timeoutMs));
+    }
+
+    @Override
+    public boolean isGameOverFor(int playerId) {
+        return Boolean.parseBoolean(call("isGameOverFor?playerId=" + playerId));
+    }
+
+    @Override
+    public int getWinnerFor(int playerId) {
+        return Integer.parseInt(call("getWinnerFor?playerId=" + playerId));
+    }
+
+    @Override
+    public GameState getState(int playerId, long sinceVersion) {
+        return GameState.fromJson(call("getState?playerId=" + playerId + "&sinceVersion=" + sinceVersion));
+    }
+
+    @Override
+    public GameState turn(int playerId, String coord, long sinceVersion) {
+        return GameState.fromJson(call("turn?playerId=" + playerId + "&coord=" + encode(coord)
+                + "&sinceVersion=" + sinceVersion));
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return Boolean.parseBoolean(call("isGameOver"));
+    }
+
+    @Override
+    public int getWinner() {
+        return Integer.parseInt(call("getWinner"));
+    }
+
+    private String call(String request) {
+        try {
+            return result(open(request));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpURLConnection open(String request) throws IOException {
+        return (HttpURLConnection) new URL(base + request).openConnection();
+    }
+
+    // Значение result из ответа {"result":…}
+    private static String result(HttpURLConnection conn) throws IOException {
+        int status = conn.getResponseCode();
+        InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+        String body = readAll(in);
+        if (status != 200 || !body.startsWith("{\"result\":"))
+            throw new IllegalStateException("Ошибка сервера " + status + ": " + body);
+        return body.substring("{\"result\":".length(), body.length() - 1);
+    }
+
+    // Ответ читается до конца и поток закрывается – тогда соединение вернётся в keep-alive
+    private static String readAll(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = input.read(buf)) != -1) out.write(buf, 0, n);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String encode(String s) {
+        try {
+            return URLEncoder.encode(s, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String unquote(String json) {
+        return (String) Json.parse(json);
+    }
+}
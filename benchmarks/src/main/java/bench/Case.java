@@ -0,0 +1,22 @@
+package bench;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Замеряемая операция. setUp готовит данные на n повторов (его время не считается),
+ * run выполняет их и отдаёт результат каждой операции в bh, чтобы JIT не выкинул работу.
+ * close освобождает то, что замер держит всё время (серверы, пулы, файлы).
+ *
+ * Один экземпляр замера служит всем потокам JMH: замер, который запускают с -t,
+ * должен выдерживать run из нескольких потоков сразу.
+ */
+public interface Case {
+
+    default void setUp(int n) throws Exception {
+    }
+
+    void run(int n, Blackhole bh) throws Exception;
+
+    default void close() throws Exception {
+    }
+}
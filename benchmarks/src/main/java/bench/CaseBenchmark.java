@@ -0,0 +1,77 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Единственный бенчмарк JMH: замер name из Suite модуля, пачками по BATCH операций.
+ * Пачка готовится (Case.setUp) до вызова и в замер не входит – так можно стрелять
+ * каждый раз по свежей партии; JMH делит время вызова на BATCH.
+ *
+ * Имена замеров подставляет Main; без него нужен -p name=…
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CaseBenchmark.BATCH)
+@State(Scope.Benchmark)
+public class CaseBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({})
+    public String name;
+
+    private Case operation;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        Callable<Case> factory = cases().get(name);
+        if (factory == null) throw new IllegalArgumentException("Нет замера " + name);
+        operation = factory.call();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        operation.close();
+    }
+
+    /** Подготовка пачки – у каждого потока своя. */
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Setup(Level.Invocation)
+        public void prepare(CaseBenchmark benchmark) throws Exception {
+            benchmark.operation.setUp(BATCH);
+        }
+    }
+
+    @Benchmark
+    public void run(Batch batch, Blackhole bh) throws Exception {
+        operation.run(BATCH, bh);
+    }
+
+    /** Замеры всех модулей на пути классов, в порядке их Suite. */
+    static Map<String, Callable<Case>> cases() {
+        Map<String, Callable<Case>> cases = new LinkedHashMap<>();
+        for (Suite suite : ServiceLoader.load(Suite.class)) {
+            cases.putAll(suite.cases());
+        }
+        return cases;
+    }
+}
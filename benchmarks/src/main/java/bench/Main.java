@@ -0,0 +1,58 @@
+package bench;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Запуск замеров модуля: java bench.Main [параметры JMH] [регулярки имён замеров]
+ *
+ * Параметры те же, что у org.openjdk.jmh.Main (-f, -wi, -i, -t, -prof gc, -rf json…),
+ * только регулярки отбирают замеры по имени ("engine.shoot", "json\\."), а не бенчмарки.
+ * Без регулярок идут все замеры модуля; -lp печатает их имена.
+ */
+public final class Main {
+
+    private static final String BLACKHOLE_MODE = "jmh.blackhole.mode";
+
+    private Main() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // замер – цикл по пачке: компиляторный Blackhole позволяет JIT вынести из цикла
+        // чтение закэшированного (например, поля render.cached), полный – нет
+        if (System.getProperty(BLACKHOLE_MODE) == null) System.setProperty(BLACKHOLE_MODE, "FULL_DONTINLINE");
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        List<String> names = new ArrayList<>();
+        for (String name : CaseBenchmark.cases().keySet()) {
+            if (selected(name, cmd.getIncludes(), cmd.getExcludes())) names.add(name);
+        }
+        if (cmd.shouldListWithParams()) {
+            for (String name : names) System.out.println(name);
+            return;
+        }
+        if (names.isEmpty()) {
+            System.err.println("Нет замеров по " + cmd.getIncludes());
+            System.exit(1);
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .include(Pattern.quote(CaseBenchmark.class.getName() + ".run"))
+                .param("name", names.toArray(new String[0]))
+                .build();
+        new Runner(options).run();
+    }
+
+    private static boolean selected(String name, List<String> includes, List<String> excludes) {
+        boolean included = includes.isEmpty();
+        for (String regex : includes) included |= Pattern.compile(regex).matcher(name).find();
+        for (String regex : excludes) included &= !Pattern.compile(regex).matcher(name).find();
+        return included;
+    }
+}
@@ -0,0 +1,19 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Замеры одного модуля. Модуль объявляет свою реализацию в
+ * META-INF/services/bench.Suite, а CaseBenchmark находит её через ServiceLoader:
+ * классы игры лежат в пакете по умолчанию, и код JMH (ему пакет обязателен) не может
+ * обратиться к ним напрямую.
+ */
+public interface Suite {
+
+    /**
+     * Замеры по именам в порядке запуска; фабрика создаёт замер заново
+     * в каждой JVM, где он идёт.
+     */
+    Map<String, Callable<Case>> cases();
+}
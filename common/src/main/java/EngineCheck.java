@@ -0,0 +1,147 @@
+import java.util.SplittableRandom;
+
+/**
+ * Сверка движков: одни и те же партии на GameServiceImpl и BitboardGameService
+ * должны давать одинаковые ShotResult, состояние партии и текст полей после каждого выстрела.
+ *
+ * Запуск: java EngineCheck [--games N] [--rules правила] [--seed N]
+ *
+ * Seed каждой партии выводится из --seed, так что любое расхождение повторяется тем же запуском.
+ * Выстрелы случайные, в том числе повторные и за пределами поля (ALREADY_SHOT и INVALID),
+ * а ход переходит после промаха, как в настоящей партии. При первом расхождении печатает,
+ * где оно, и завершается с кодом 1.
+ */
+public final class EngineCheck {
+
+    private EngineCheck() {
+    }
+
+    public static void main(String[] args) {
+        GameRules rules = GameRules.STANDARD;
+        int games = 2000;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--games") && i + 1 < args.length) {
+                games = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--rules") && i + 1 < args.length) {
+                rules = GameRules.parse(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            }
+        }
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long shots = 0;
+        for (int g = 0; g < games; g++) {
+            long gameSeed = seeds.nextLong();
+            try {
+                shots += check(rules, gameSeed);
+            } catch (IllegalStateException e) {
+                System.out.println("Расхождение в партии " + g + " (seed " + gameSeed + "): " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        System.out.println("Движки совпадают: " + games + " партий, " + shots + " выстрелов (" + rules + ")");
+    }
+
+    /**
+     * Одна партия на обоих движках; возвращает число выстрелов.
+     *
+     * @throws IllegalStateException при первом расхождении – с его описанием
+     */
+    static long check(GameRules rules, long gameSeed) {
+        GameService chars = new GameServiceImpl(rules, gameSeed);
+        GameService bits = new BitboardGameService(rules, gameSeed);
+        compareState(chars, bits, "в начале");
+
+        int size = rules.getSize();
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        // у каждого игрока свой порядок клеток, так что партия обязательно закончится
+        int[][] order = {shuffledCells(size, random), shuffledCells(size, random)};
+        int[] next = new int[2];
+        int player = 1;
+        long shots = 0;
+        for (int n = 0; n < 4 * size * size && !chars.isGameOver(); n++) {
+            int row;
+            int col;
+            if (random.nextInt(8) == 0) {
+                // случайная клетка: бывает повтором или за полем
+                row = random.nextInt(size + 2) - 1;
+                col = random.nextInt(size + 2) - 1;
+            } else {
+                int cell = order[player - 1][next[player - 1]++];
+                row = cell / size;
+                col = cell % size;
+            }
+            String shot = "выстрел " + n + " игрока " + player + " по (" + row + ", " + col + ")";
+
+            if (row >= 0 && row < size && col >= 0 && col < size
+                    && chars.canShoot(player, row, col) != bits.canShoot(player, row, col)) {
+                throw mismatch(shot + ": canShoot " + chars.canShoot(player, row, col) + " / " + bits.canShoot(player, row, col));
+            }
+
+            GameService.ShotResult expected = chars.shoot(player, row, col);
+            GameService.ShotResult actual = bits.shoot(player, row, col);
+            if (expected != actual) throw mismatch(shot + ": " + expected + " / " + actual);
+            shots++;
+
+            if (expected == GameService.ShotResult.SUNK) {
+                compareShips(chars.getLastSunkShip(), bits.getLastSunkShip(), shot);
+            }
+            compareState(chars, bits, shot);
+
+            if (expected == GameService.ShotResult.MISS) player = 3 - player;
+        }
+        if (!chars.isGameOver()) throw mismatch("партия не закончилась за " + shots + " выстрелов");
+        return shots;
+    }
+
+    private static void compareState(GameService chars, GameService bits, String where) {
+        if (chars.isGameOver() != bits.isGameOver()) {
+            throw mismatch(where + ": isGameOver " + chars.isGameOver() + " / " + bits.isGameOver());
+        }
+        if (chars.getWinner() != bits.getWinner()) {
+            throw mismatch(where + ": getWinner " + chars.getWinner() + " / " + bits.getWinner());
+        }
+        if (chars.getVersion() != bits.getVersion()) {
+            throw mismatch(where + ": getVersion " + chars.getVersion() + " / " + bits.getVersion());
+        }
+        for (int p = 1; p <= 2; p++) {
+            String expected = chars.boardForPlayer(p);
+            String actual = bits.boardForPlayer(p);
+            if (!expected.equals(actual)) {
+                throw mismatch(where + ": поле игрока " + p + " отличается\n" + expected + "\n---\n" + actual);
+            }
+        }
+    }
+
+    private static void compareShips(GameService.Ship a, GameService.Ship b, String where) {
+        boolean same = a == null || b == null
+                ? a == b
+                : a.getRow() == b.getRow() && a.getCol() == b.getCol()
+                        && a.getLength() == b.getLength() && a.isHorizontal() == b.isHorizontal();
+        if (!same) throw mismatch(where + ": потоплен " + text(a) + " / " + text(b));
+    }
+
+    private static int[] shuffledCells(int size, SplittableRandom random) {
+        int[] cells = new int[size * size];
+        for (int i = 0; i < cells.length; i++) cells[i] = i;
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = cells[i];
+            cells[i] = cells[j];
+            cells[j] = t;
+        }
+        return cells;
+    }
+
+    private static IllegalStateException mismatch(String what) {
+        return new IllegalStateException(what);
+    }
+
+    private static String text(GameService.Ship ship) {
+        if (ship == null) return "null";
+        return GameRules.coordToString(ship.getRow(), ship.getCol()) + " x" + ship.getLength()
+                + (ship.isHorizontal() ? " гор." : " верт.");
+    }
+}
@@ -0,0 +1,295 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал событий сервера: партия началась, игрок подключился, партия окончена и т. п.
+ * Каждое событие – строка JSON: {"time":"…","event":"game_over","game":5,"record":"…"}.
+ *
+ * Поток, который пишет событие, только кладёт его в кольцевой буфер – без блокировок,
+ * форматирования и ввода-вывода. Строки собирает и пишет пачками отдельный поток,
+ * поэтому медленная консоль или диск не задерживают ход.
+ *
+ * Если буфер полон, событие либо отбрасывается (Overflow.DROP, по умолчанию – ход важнее
+ * журнала; отброшенные считает метрика log_dropped_total), либо пишущий поток ждёт места
+ * (Overflow.BLOCK – ничего не теряется, но диск снова может тормозить игру).
+ *
+ * Один журнал на процесс – EventLog.get(); по умолчанию он пишет в консоль,
+ * configure направляет его в файл.
+ */
+final class EventLog implements AutoCloseable {
+
+    /**
+     * Что делать, если буфер полон.
+     */
+    enum Overflow { DROP, BLOCK }
+
+    static final int DEFAULT_CAPACITY = 8192;
+    // больше строк за раз писатель не собирает, чтобы не держать буфер надолго
+    private static final int BATCH = 256;
+    // сколько спит писатель, когда событий нет
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // сколько раз при Overflow.BLOCK уступить процессор, прежде чем заснуть
+    private static final int SPINS = 64;
+
+    private static final LongAdder DROPPED = Metrics.get().counter("log_dropped_total");
+
+    private static volatile EventLog shared;
+
+    private final Writer out;
+    private final boolean closeOut;
+    private final Overflow overflow;
+
+    // Кольцо ячеек. sequences[i] – номер события, которое ячейка ждёт (свободна) или
+    // номер + 1 (заполнена); так производители делят ячейки одним CAS по tail
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] times;
+    private final String[] events;
+    private final Object[][] fields;
+    private final AtomicLong tail = new AtomicLong();
+    // читает и пишет только поток writer
+    private long head = 0;
+
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    private EventLog(Writer out, boolean closeOut, int capacity, Overflow overflow) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть степенью двойки: " + capacity);
+        }
+        this.out = out;
+        this.closeOut = closeOut;
+        this.overflow = overflow;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.times = new long[capacity];
+        this.events = new String[capacity];
+        this.fields = new Object[capacity][];
+        this.writer = new Thread(this::drainLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Журнал процесса; если configure не вызывали – в консоль, с отбрасыванием при переполнении.
+     */
+    static EventLog get() {
+        EventLog log = shared;
+        if (log == null) {
+            synchronized (EventLog.class) {
+                log = shared;
+                if (log == null) {
+                    log = new EventLog(new BufferedWriter(new OutputStreamWriter(System.out)),
+                            false, DEFAULT_CAPACITY, Overflow.DROP);
+                    install(log);
+                }
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Дальше журнал процесса пишется в конец файла file. Прежний журнал дописывается и закрывается.
+     */
+    static void configure(Path file, Overflow overflow) throws IOException {
+        EventLog log = open(file, DEFAULT_CAPACITY, overflow);
+        EventLog old;
+        synchronized (EventLog.class) {
+            old = shared;
+            install(log);
+        }
+        if (old != null) {
+            old.close();
+        }
+    }
+
+    /**
+     * Отдельный журнал в конец файла file с буфером на capacity событий (степень двойки) –
+     * например, для замеров; закрывает его тот, кто открыл.
+     */
+    static EventLog open(Path file, int capacity, Overflow overflow) throws IOException {
+        Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new EventLog(out, true, capacity, overflow);
+    }
+
+    // Под монитором EventLog.class; при первой установке – хук, который допишет журнал при выходе
+    private static void install(EventLog log) {
+        if (shared == null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(EventLog::closeShared, "event-log-close"));
+        }
+        shared = log;
+    }
+
+    private static void closeShared() {
+        EventLog log = shared;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Событие event с полями keyValues: имя, значение, имя, значение… Значения – числа,
+     * логические или что угодно ещё (пишется toString()); форматирует их поток журнала.
+     *
+     * Возвращает false, если событие отброшено (буфер полон при Overflow.DROP или журнал закрыт).
+     */
+    boolean log(String event, Object... keyValues) {
+        long time = System.currentTimeMillis();
+        int waits = 0;
+        while (!closed) {
+            long t = tail.get();
+            int slot = (int) t & mask;
+            long seq = sequences.get(slot);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    times[slot] = time;
+                    events[slot] = event;
+                    fields[slot] = keyValues;
+                    // публикация: писатель увидит ячейку только после записи полей
+                    sequences.set(slot, t + 1);
+                    return true;
+                }
+            } else if (seq < t) {
+                // ячейка ещё не прочитана – буфер полон
+                if (overflow == Overflow.DROP) {
+                    DROPPED.increment();
+                    return false;
+                }
+                // сначала уступаем процессор писателю (на одном ядре иначе он не успеет), потом спим
+                LockSupport.unpark(writer);
+                if (++waits < SPINS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS / 10);
+                }
+            }
+            // иначе ячейку t уже занял другой поток – берём следующую
+        }
+        DROPPED.increment();
+        return false;
+    }
+
+    /**
+     * Дописывает всё, что уже в буфере, и останавливает писателя. События после close отбрасываются.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        try {
+            while (true) {
+                // closed читается до разбора: всё, что успели положить до close, будет записано
+                boolean last = closed;
+                int written = drain(line);
+                if (written > 0) {
+                    out.flush();
+                } else if (last) {
+                    break;
+                } else {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            // дальше события отбрасываются, а не копятся (или ждут) в буфере, который никто не читает
+            closed = true;
+            System.err.println("Журнал событий отключён, ошибка записи: " + e.getMessage());
+        } finally {
+            try {
+                if (closeOut) {
+                    out.close();
+                } else {
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Пишет до BATCH готовых событий; возвращает, сколько записано
+    private int drain(StringBuilder line) throws IOException {
+        int written = 0;
+        while (written < BATCH) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) {
+                break;
+            }
+            line.setLength(0);
+            format(line, times[slot], events[slot], fields[slot]);
+            fields[slot] = null;
+            events[slot] = null;
+            // ячейка свободна для события head + capacity
+            sequences.set(slot, head + mask + 1);
+            head++;
+            out.write(line.toString());
+            written++;
+        }
+        return written;
+    }
+
+    private static void format(StringBuilder sb, long time, String event, Object[] keyValues) {
+        sb.append("{\"time\":\"").append(Instant.ofEpochMilli(time)).append("\",\"event\":");
+        string(sb, event);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            sb.append(',');
+            string(sb, String.valueOf(keyValues[i]));
+            sb.append(':');
+            Object value = keyValues[i + 1];
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                string(sb, String.valueOf(value));
+            }
+        }
+        sb.append("}\n");
+    }
+
+    // Строка JSON в кавычках
+    private static void string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
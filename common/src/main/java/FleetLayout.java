@@ -0,0 +1,43 @@
+/**
+ * Готовая расстановка флота одного игрока: по int на корабль,
+ * (row * size + col) * 2 + (1, если горизонтально). Неизменяема, поэтому одну
+ * и ту же расстановку можно спокойно передавать между потоками.
+ *
+ * seed – из него FleetPlacer.place получит ровно эту расстановку (см. GameRecord).
+ */
+final class FleetLayout {
+
+    private final int size;
+    private final int[] ships;
+    private final long seed;
+
+    FleetLayout(int size, int[] ships, long seed) {
+        this.size = size;
+        this.ships = ships;
+        this.seed = seed;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    int shipCount() {
+        return ships.length;
+    }
+
+    int row(int ship) {
+        return (ships[ship] >> 1) / size;
+    }
+
+    int col(int ship) {
+        return (ships[ship] >> 1) % size;
+    }
+
+    boolean isHorizontal(int ship) {
+        return (ships[ship] & 1) == 1;
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Случайная расстановка флота за ограниченное время.
+ *
+ * Корабль ставится не «наугад, пока не повезёт», а в случайную из допустимых позиций:
+ * занятые клетки (корабли вместе с соседями) хранятся маской, по long на строку,
+ * и все допустимые начала корабля в строке находятся несколькими сдвигами и AND
+ * этой маски. Если очередному кораблю места не осталось,
+ * предыдущий переставляется на другую свою позицию (перебор с возвратом).
+ *
+ * Плотный флот (например, 25 однопалубных на 10×10 – их можно поставить только сеткой 5×5)
+ * случайным перебором за MAX_STEPS шагов не найти. Тогда флот ставится плотно: от длинных
+ * кораблей к коротким, каждый в первую свободную позицию сверху вниз и слева направо
+ * (тот же перебор с возвратом), и эта расстановка случайно поворачивается или отражается.
+ * GameRules при создании проверяют, что плотная расстановка находится (fits), поэтому
+ * для любых допустимых правил place всегда возвращает расстановку.
+ *
+ * Расстановка зависит только от seed: свой SplittableRandom на каждый вызов, без общего
+ * состояния между потоками, так что расстановку всегда можно повторить (GameRecord).
+ *
+ * arrange расставляет флот, не выделяя памяти, и позиции читаются прямо из расстановщика
+ * (row, col, isHorizontal) – так GameServiceImpl.reset начинает новую партию без мусора;
+ * place упаковывает ту же расстановку в неизменяемый FleetLayout.
+ *
+ * Экземпляр можно использовать повторно, но не из нескольких потоков сразу.
+ */
+final class FleetPlacer {
+
+    private static final int MAX_STEPS = 100_000;
+
+    private final int size;
+    private final int[] fleet;
+
+    // порядок постановки: order[d] – корабль, который ставится d-м
+    private final int[] order;
+    private final int[] byLength;
+
+    // blocked[s] – маска занятых клеток перед постановкой корабля s: строка -> биты столбцов
+    private final long[][] blocked;
+    // ещё не опробованные позиции корабля s: бит col в строке row – корабль может начинаться в (row, col)
+    private final long[][] horizontalStarts;
+    private final long[][] verticalStarts;
+    private final int[] candidateCount;
+
+    private final int[] rows;
+    private final int[] cols;
+    private final boolean[] horizontal;
+
+    FleetPlacer(GameRules rules) {
+        this(rules.getSize(), rules.getFleet());
+    }
+
+    private FleetPlacer(int size, int[] fleet) {
+        this.size = size;
+        this.fleet = fleet;
+        this.order = new int[fleet.length];
+        Integer[] ships = new Integer[fleet.length];
+        for (int i = 0; i < fleet.length; i++) ships[i] = i;
+        Arrays.sort(ships, (a, b) -> fleet[b] - fleet[a]);
+        this.byLength = new int[fleet.length];
+        for (int i = 0; i < fleet.length; i++) byLength[i] = ships[i];
+        this.blocked = new long[fleet.length][size];
+        this.horizontalStarts = new long[fleet.length][size];
+        this.verticalStarts = new long[fleet.length][size];
+        this.candidateCount = new int[fleet.length];
+        this.rows = new int[fleet.length];
+        this.cols = new int[fleet.length];
+        this.horizontal = new boolean[fleet.length];
+    }
+
+    /**
+     * Находится ли плотная расстановка флота (см. описание класса) за MAX_STEPS шагов.
+     * Так GameRules проверяют флот при создании; длины кораблей – от 1 до size.
+     */
+    static boolean fits(int size, int[] fleet) {
+        FleetPlacer placer = new FleetPlacer(size, fleet);
+        System.arraycopy(placer.byLength, 0, placer.order, 0, fleet.length);
+        return placer.search(null);
+    }
+
+    /**
+     * Случайная расстановка всего флота; один и тот же seed даёт одну и ту же расстановку.
+     */
+    FleetLayout place(long seed) {
+        arrange(seed);
+        int[] ships = new int[fleet.length];
+        for (int i = 0; i < ships.length; i++) {
+            ships[i] = (rows[i] * size + cols[i]) * 2 + (horizontal[i] ? 1 : 0);
+        }
+        return new FleetLayout(size, ships, seed);
+    }
+
+    /**
+     * То же, что place, но позиции остаются в расстановщике до следующего вызова.
+     */
+    void arrange(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        if (search(random)) return;
+
+        // случайно не вышло – плотная расстановка в случайной из 8 симметрий поля
+        System.arraycopy(byLength, 0, order, 0, order.length);
+        if (!search(null)) {
+            throw new IllegalStateException("Флот " + Arrays.toString(fleet) + " не расставить на поле " + size + "×" + size);
+        }
+        transform(random.nextInt(8));
+    }
+
+    // Перебор с возвратом в порядке order: с random – в случайную из оставшихся позиций,
+    // без него – в первую. false – не вышло за MAX_STEPS шагов или позиций нет вовсе
+    private boolean search(SplittableRandom random) {
+        Arrays.fill(blocked[0], 0L);
+        collect(0);
+
+        int d = 0;
+        int steps = 0;
+        while (d < fleet.length) {
+            if (candidateCount[d] == 0) {
+                // позиции кончились – переставляем предыдущий корабль
+                if (d == 0) return false;
+                d--;
+                continue;
+            }
+            if (++steps > MAX_STEPS) return false;
+
+            take(d, random == null ? 0 : random.nextInt(candidateCount[d]));
+
+            if (d + 1 < fleet.length) {
+                block(d);
+                collect(d + 1);
+            }
+            d++;
+        }
+        return true;
+    }
+
+    // Отражения (биты 0 и 1) и транспонирование (бит 2) поля вместе со всеми кораблями
+    private void transform(int symmetry) {
+        for (int s = 0; s < fleet.length; s++) {
+            int lastRow = rows[s] + (horizontal[s] ? 0 : fleet[s] - 1);
+            int lastCol = cols[s] + (horizontal[s] ? fleet[s] - 1 : 0);
+            if ((symmetry & 1) != 0) {
+                cols[s] = size - 1 - lastCol;
+            }
+            if ((symmetry & 2) != 0) {
+                rows[s] = size - 1 - lastRow;
+            }
+            // однопалубный всегда считается горизонтальным
+            if ((symmetry & 4) != 0) {
+                int r = rows[s];
+                rows[s] = cols[s];
+                cols[s] = r;
+                horizontal[s] = !horizontal[s] || fleet[s] == 1;
+            }
+        }
+    }
+
+    // Позиция корабля ship после последнего arrange
+    int row(int ship) {
+        return rows[ship];
+    }
+
+    int col(int ship) {
+        return cols[ship];
+    }
+
+    boolean isHorizontal(int ship) {
+        return horizontal[ship];
+    }
+
+    // Все позиции корабля, который ставится d-м, не задевающие маску blocked[d]
+    private void collect(int d) {
+        int len = fleet[order[d]];
+        long[] busy = blocked[d];
+        long all = span(0, size - 1);
+        int n = 0;
+        for (int r = 0; r < size; r++) {
+            long free = ~busy[r] & all;
+
+            // бит c остаётся, если свободны клетки c .. c + len - 1 (за краем поля бит всегда 0)
+            long h = free;
+            for (int i = 1; i < len; i++) h &= free >>> i;
+
+            // однопалубному всё равно, как стоять
+            long v = 0;
+            if (len > 1 && r + len <= size) {
+                v = free;
+                for (int i = 1; i < len; i++) v &= ~busy[r + i];
+            }
+
+            horizontalStarts[d][r] = h;
+            verticalStarts[d][r] = v;
+            n += Long.bitCount(h) + Long.bitCount(v);
+        }
+        candidateCount[d] = n;
+    }
+
+    // Ставит d-й корабль в k-ю из оставшихся позиций и вычёркивает её
+    private void take(int d, int k) {
+        int s = order[d];
+        for (int r = 0; r < size; r++) {
+            for (int o = 0; o < 2; o++) {
+                long[] starts = o == 0 ? horizontalStarts[d] : verticalStarts[d];
+                int count = Long.bitCount(starts[r]);
+                if (k >= count) {
+                    k -= count;
+                    continue;
+                }
+                long bits = starts[r];
+                for (int i = 0; i < k; i++) bits &= bits - 1;
+                long bit = Long.lowestOneBit(bits);
+                starts[r] &= ~bit;
+                candidateCount[d]--;
+
+                rows[s] = r;
+                cols[s] = Long.numberOfTrailingZeros(bit);
+                horizontal[s] = o == 0;
+                return;
+            }
+        }
+        throw new IllegalStateException("Нет позиции " + k + " для корабля " + s);
+    }
+
+    // blocked[d + 1] = blocked[d] плюс d-й корабль с соседними клетками
+    private void block(int d) {
+        int s = order[d];
+        long[] next = blocked[d + 1];
+        System.arraycopy(blocked[d], 0, next, 0, size);
+
+        int lastRow = rows[s] + (horizontal[s] ? 0 : fleet[s] - 1);
+        int lastCol = cols[s] + (horizontal[s] ? fleet[s] - 1 : 0);
+        long mask = span(Math.max(cols[s] - 1, 0), Math.min(lastCol + 1, size - 1));
+        for (int r = Math.max(rows[s] - 1, 0); r <= Math.min(lastRow + 1, size - 1); r++) {
+            next[r] |= mask;
+        }
+    }
+
+    // Биты столбцов from..to включительно
+    private static long span(int from, int to) {
+        int width = to - from + 1;
+        return width == 64 ? -1L : ((1L << width) - 1) << from;
+    }
+}
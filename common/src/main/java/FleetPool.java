@@ -0,0 +1,92 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запас заранее расставленных флотов, чтобы новая партия не тратила время на расстановку.
+ *
+ * Отдельный поток-заготовщик держит очередь полной: как только партия забирает
+ * расстановку, он делает новую. Если запас кончился (партии создаются быстрее,
+ * чем заготовщик успевает), take расставляет флот сам, в своём потоке, –
+ * это считается промахом. Попадания и промахи всех пулов видны в Metrics
+ * (fleet_pool_total{result="hit"|"miss"}) – по ним понятно, хватает ли запаса.
+ */
+final class FleetPool {
+
+    private static final int SHARED_CAPACITY = 1024;
+
+    // общие пулы – по одному на правила
+    private static final ConcurrentMap<GameRules, FleetPool> SHARED = new ConcurrentHashMap<>();
+
+    private static final LongAdder HITS = Metrics.get().counter("fleet_pool_total{result=\"hit\"}");
+    private static final LongAdder MISSES = Metrics.get().counter("fleet_pool_total{result=\"miss\"}");
+
+    private final BlockingQueue<FleetLayout> queue;
+
+    // для промахов: у каждого потока свой FleetPlacer
+    private final ThreadLocal<FleetPlacer> placers;
+
+    private final Thread producer;
+
+    FleetPool(int capacity, GameRules rules) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        final FleetPlacer own = new FleetPlacer(rules);
+        this.placers = ThreadLocal.withInitial(() -> new FleetPlacer(rules));
+
+        producer = new Thread(() -> {
+            // seed каждой расстановки – из своего генератора заготовщика, без общего состояния
+            SplittableRandom seeds = new SplittableRandom();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    queue.put(own.place(seeds.nextLong()));
+                }
+            } catch (InterruptedException ignored) {
+                // пул остановлен
+            } catch (RuntimeException e) {
+                // заготовщик остановился; take дальше расставляет флот сам и считает промахи
+                EventLog.get().log("fleet_pool_failed", "rules", rules, "error", e.toString());
+            }
+        }, "fleet-pool");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Общий пул для этих правил; создаётся (и запускает заготовщика) при первом обращении.
+     */
+    static FleetPool of(GameRules rules) {
+        return SHARED.computeIfAbsent(rules, r -> new FleetPool(SHARED_CAPACITY, r));
+    }
+
+    FleetLayout take() {
+        FleetLayout layout = queue.poll();
+        if (layout != null) {
+            HITS.increment();
+            return layout;
+        }
+        MISSES.increment();
+        return placers.get().place(ThreadLocalRandom.current().nextLong());
+    }
+
+    // Попадания и промахи всех пулов с запуска процесса
+    static long getHits() {
+        return HITS.sum();
+    }
+
+    static long getMisses() {
+        return MISSES.sum();
+    }
+
+    // Сколько расстановок сейчас в запасе
+    int available() {
+        return queue.size();
+    }
+
+    void shutdown() {
+        producer.interrupt();
+    }
+}
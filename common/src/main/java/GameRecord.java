@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * Запись партии: правила, seed обеих расстановок и все выстрелы по порядку.
+ * Этого достаточно, чтобы повторить партию ход в ход (replay) – например, чтобы
+ * разобрать ошибку из лога сервера или прогнать одну и ту же партию в нагрузочном тесте.
+ *
+ * Текстовый вид (toString / parse):
+ *   правила seed1 seed2 выстрелы...
+ *   10:4,3,3,2,2,2,1,1,1,1 -4962768465676381896 4437113781045784766 1A0 1B3 2J9
+ * где выстрел – номер игрока и клетка.
+ *
+ * Запуск: java GameRecord "запись" – повторяет партию и печатает поля обоих игроков.
+ *
+ * Не потокобезопасна: пишет её тот же поток, что ведёт партию.
+ */
+public final class GameRecord {
+
+    private final GameRules rules;
+    private final long firstSeed;
+    private final long secondSeed;
+
+    // выстрел: (playerId - 1) << 12 | row << 6 | col – row и col меньше GameRules.MAX_SIZE
+    private int[] shots = new int[16];
+    private int shotCount = 0;
+
+    public GameRecord(GameRules rules, long firstSeed, long secondSeed) {
+        this.rules = rules;
+        this.firstSeed = firstSeed;
+        this.secondSeed = secondSeed;
+    }
+
+    // Запись партии, начатой с этими расстановками
+    GameRecord(GameRules rules, FleetLayout first, FleetLayout second) {
+        this(rules, first.getSeed(), second.getSeed());
+    }
+
+    /**
+     * Запоминает выстрел, который движок принял (canShoot был true).
+     */
+    public void addShot(int playerId, int row, int col) {
+        if (shotCount == shots.length) {
+            shots = Arrays.copyOf(shots, shotCount * 2);
+        }
+        shots[shotCount++] = (playerId - 1) << 12 | row << 6 | col;
+    }
+
+    public GameRules getRules() {
+        return rules;
+    }
+
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    public long getFirstSeed() {
+        return firstSeed;
+    }
+
+    public long getSecondSeed() {
+        return secondSeed;
+    }
+
+    // Выстрел номер i: кто стрелял и куда
+    public int shotPlayer(int i) {
+        return (shots[i] >> 12) + 1;
+    }
+
+    public int shotRow(int i) {
+        return (shots[i] >> 6) & 63;
+    }
+
+    public int shotCol(int i) {
+        return shots[i] & 63;
+    }
+
+    /**
+     * Новая партия с теми же расстановками и всеми записанными выстрелами.
+     */
+    public GameService replay() {
+        FleetPlacer placer = new FleetPlacer(rules);
+        GameService game = new GameServiceImpl(rules, placer.place(firstSeed), placer.place(secondSeed));
+        for (int i = 0; i < shotCount; i++) {
+            game.shoot(shotPlayer(i), shotRow(i), shotCol(i));
+        }
+        return game;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append(rules).append(' ')
+                .append(firstSeed).append(' ')
+                .append(secondSeed);
+        for (int i = 0; i < shotCount; i++) {
+            sb.append(' ').append(shotPlayer(i)).append(GameRules.coordToString(shotRow(i), shotCol(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Запись из строки в формате toString.
+     */
+    public static GameRecord parse(String text) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Неверная запись партии: " + text);
+        }
+        GameRules rules = GameRules.parse(parts[0]);
+        GameRecord record;
+        try {
+            record = new GameRecord(rules, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный seed в записи партии: " + text);
+        }
+        for (int i = 3; i < parts.length; i++) {
+            char player = parts[i].charAt(0);
+            int[] rc = rules.parseCoord(parts[i].substring(1));
+            if ((player != '1' && player != '2') || rc == null) {
+                throw new IllegalArgumentException("Неверный выстрел в записи партии: " + parts[i]);
+            }
+            record.addShot(player - '0', rc[0], rc[1]);
+        }
+        return record;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Запуск: java GameRecord \"правила seed1 seed2 выстрелы...\"");
+            return;
+        }
+        GameRecord record = parse(String.join(" ", args));
+        GameService game = record.replay();
+        System.out.println("Выстрелов: " + record.getShotCount() + ", победитель: " + game.getWinner());
+        for (int playerId = 1; playerId <= 2; playerId++) {
+            System.out.println("Игрок " + playerId + ":");
+            System.out.print(game.boardForPlayer(playerId));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.Arrays;
+
+/**
+ * Правила партии: размер квадратного поля (до 64×64) и состав флота.
+ *
+ * Строки поля называются буквами как столбцы в таблицах: A..Z, затем AA, AB, ...;
+ * столбцы – числами с 0. Для стандартного поля 10×10 это привычные A0 … J9.
+ *
+ * Неизменяемы; проверяются при создании: флот принимается, только если FleetPlacer
+ * находит для него расстановку (FleetPlacer.fits), так что любая партия по этим правилам
+ * создаётся без ошибок, а флот, который не помещается на поле, отвергается сразу.
+ */
+public final class GameRules {
+
+    public static final int MAX_SIZE = 64;
+
+    // 4-палубный, 2×3-палубных, 3×2-палубных, 4×1-палубных на поле 10×10
+    public static final GameRules STANDARD = new GameRules(10, new int[]{4, 3, 3, 2, 2, 2, 1, 1, 1, 1});
+
+    private final int size;
+    private final int[] fleet;
+    private final int totalDecks;
+
+    public GameRules(int size, int[] fleet) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Размер поля должен быть от 1 до " + MAX_SIZE + ": " + size);
+        }
+        if (fleet.length == 0 || fleet.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Во флоте должно быть от 1 до " + Short.MAX_VALUE + " кораблей");
+        }
+        // Корабль длины L вместе с половиной своей «зоны» занимает прямоугольник (L + 1) × 2
+        // на поле (size + 1) × (size + 1), и эти прямоугольники не пересекаются
+        int area = 0;
+        int decks = 0;
+        for (int len : fleet) {
+            if (len < 1 || len > size) {
+                throw new IllegalArgumentException("Корабль длины " + len + " не помещается на поле " + size + "×" + size);
+            }
+            area += 2 * (len + 1);
+            decks += len;
+        }
+        // площадь – быстрая, но лишь необходимая проверка; окончательно решает пробная расстановка
+        if (area > (size + 1) * (size + 1) || !FleetPlacer.fits(size, fleet)) {
+            throw new IllegalArgumentException("Флот " + Arrays.toString(fleet) + " не помещается на поле " + size + "×" + size);
+        }
+
+        this.size = size;
+        this.fleet = fleet.clone();
+        this.totalDecks = decks;
+    }
+
+    /**
+     * Правила из строки "размер" или "размер:длины,через,запятую", например "16:5,4,4,3,3,2,2,1,1".
+     * Без флота берётся стандартный.
+     */
+    public static GameRules parse(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        int size;
+        int[] fleet;
+        try {
+            size = Integer.parseInt(parts[0].trim());
+            if (parts.length == 1) {
+                fleet = STANDARD.fleet;
+            } else {
+                String[] lengths = parts[1].split(",");
+                fleet = new int[lengths.length];
+                for (int i = 0; i < lengths.length; i++) {
+                    fleet[i] = Integer.parseInt(lengths[i].trim());
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверные правила: " + spec + " (пример: 16:5,4,3,3,2,1)");
+        }
+        return new GameRules(size, fleet);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int shipCount() {
+        return fleet.length;
+    }
+
+    public int shipLength(int ship) {
+        return fleet[ship];
+    }
+
+    public int[] getFleet() {
+        return fleet.clone();
+    }
+
+    // Сколько всего палуб во флоте одного игрока
+    public int getTotalDecks() {
+        return totalDecks;
+    }
+
+    /**
+     * Координата вида "B7" (регистр и пробелы по краям не важны) или null,
+     * если формат неверный или клетка вне поля.
+     */
+    public int[] parseCoord(String s) {
+        return parseCoord(s, size);
+    }
+
+    // То же для поля size×size – когда правил под рукой нет (например, у клиента).
+    // Разбирает строку на месте, без trim/toUpperCase/substring: вызывается на каждый выстрел
+    public static int[] parseCoord(String s, int size) {
+        if (s == null) return null;
+        int from = 0;
+        int to = s.length();
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+
+        // 1–2 буквы строки в любом регистре
+        int i = from;
+        int row = 0;
+        while (i < to) {
+            int ch = s.charAt(i) | 0x20; // 'A'..'Z' -> 'a'..'z'
+            if (ch < 'a' || ch > 'z') break;
+            row = row * 26 + (ch - 'a' + 1);
+            i++;
+        }
+        int letters = i - from;
+        if (letters == 0 || letters > 2) return null;
+
+        // 1–2 цифры столбца
+        int digits = to - i;
+        if (digits == 0 || digits > 2) return null;
+        int col = 0;
+        for (; i < to; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return null;
+            col = col * 10 + d;
+        }
+
+        row--;
+        if (row >= size || col >= size) return null;
+        return new int[]{row, col};
+    }
+
+    public static String coordToString(int row, int col) {
+        return rowName(row) + col;
+    }
+
+    // 0 -> A, 25 -> Z, 26 -> AA, ...
+    public static String rowName(int row) {
+        if (row < 26) return String.valueOf((char) ('A' + row));
+        return "" + (char) ('A' + row / 26 - 1) + (char) ('A' + row % 26);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameRules)) return false;
+        GameRules other = (GameRules) o;
+        return size == other.size && Arrays.equals(fleet, other.fleet);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(fleet);
+    }
+
+    // В том же виде, что понимает parse
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(size).append(':');
+        for (int i = 0; i < fleet.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(fleet[i]);
+        }
+        return sb.toString();
+    }
+}
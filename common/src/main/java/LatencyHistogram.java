@@ -0,0 +1,92 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в наносекундах, устроенная как HdrHistogram: значения до 32 идут
+ * каждое в свою корзину, дальше каждая степень двойки делится на 32 корзины. Значит,
+ * процентиль завышен не больше чем на 1/32 (~3%) при любом масштабе – от десятков
+ * наносекунд до минут – а вся гистограмма занимает 1888 счётчиков.
+ *
+ * record – без блокировок: увеличить один счётчик корзины и сумму; максимум
+ * меняется CAS только тогда, когда он растёт. Чтение (percentile, getCount) проходит
+ * по всем корзинам и при одновременной записи даёт приблизительный, но согласованный
+ * по смыслу ответ – для метрик этого достаточно.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0; // nanoTime на разных ядрах
+        }
+        counts.incrementAndGet(index(nanos));
+        sum.add(nanos);
+        long seen;
+        while (nanos > (seen = max.get()) && !max.compareAndSet(seen, nanos)) {
+            // другой поток успел записать свой максимум – сравниваем ещё раз
+        }
+    }
+
+    long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Значение, не меньше которого q-я доля записей (0 < q <= 1), с точностью до корзины;
+     * 0 – записей нет.
+     */
+    long percentile(double q) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // Корзина значения: до SUB – само значение, дальше SUB корзин на степень двойки
+    private static int index(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB;
+        return (shift + 1) * SUB + sub;
+    }
+
+    // Наибольшее значение, попадающее в корзину i
+    private static long upperBound(int i) {
+        if (i < SUB) {
+            return i;
+        }
+        int shift = i / SUB - 1;
+        long low = (long) (SUB + i % SUB) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
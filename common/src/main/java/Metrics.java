@@ -0,0 +1,233 @@
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Метрики сервера: счётчики, текущие значения и гистограммы задержек (LatencyHistogram).
+ *
+ * Один набор на процесс – Metrics.get(). Его видно двумя способами:
+ *  - в JMX (jconsole, VisualVM) как MBean battleship:type=Metrics;
+ *  - текстом в формате Prometheus по http://хост:порт/metrics, если вызван serve(порт).
+ *
+ * Метрики заводятся один раз, обычно в static-поле класса, который их пишет, а запись –
+ * LongAdder.increment или LatencyHistogram.record – идёт без блокировок. Имя метрики
+ * может нести метки, как в Prometheus: shots_total{result="HIT"}.
+ */
+final class Metrics implements DynamicMBean {
+
+    private static final String OBJECT_NAME = "battleship:type=Metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static volatile Metrics shared;
+
+    // имя -> LongAdder (счётчик), LongSupplier (текущее значение) или LatencyHistogram;
+    // по порядку имён, чтобы вывод был стабильным
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Метрики процесса; при первом вызове регистрируются в JMX.
+     */
+    static Metrics get() {
+        Metrics m = shared;
+        if (m == null) {
+            synchronized (Metrics.class) {
+                m = shared;
+                if (m == null) {
+                    m = new Metrics();
+                    m.register();
+                    shared = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Счётчик name; с тем же именем – тот же счётчик.
+     */
+    LongAdder counter(String name) {
+        return (LongAdder) metrics.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Текущее значение name, которое берётся из value при каждом чтении;
+     * повторный вызов заменяет источник.
+     */
+    void gauge(String name, LongSupplier value) {
+        metrics.put(name, value);
+    }
+
+    /**
+     * Гистограмма задержек name (в наносекундах); с тем же именем – та же гистограмма.
+     */
+    LatencyHistogram histogram(String name) {
+        return (LatencyHistogram) metrics.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Все метрики текстом в формате Prometheus. Гистограмма выводится как summary:
+     * процентили, _count, _sum и _max.
+     */
+    String scrape() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            String name = e.getKey();
+            Object metric = e.getValue();
+            if (metric instanceof LatencyHistogram) {
+                LatencyHistogram h = (LatencyHistogram) metric;
+                sb.append("# TYPE ").append(name).append(" summary\n");
+                for (double q : QUANTILES) {
+                    sb.append(name).append("{quantile=\"").append(q).append("\"} ")
+                            .append(h.percentile(q)).append('\n');
+                }
+                sb.append(name).append("_count ").append(h.getCount()).append('\n');
+                sb.append(name).append("_sum ").append(h.getSum()).append('\n');
+                sb.append(name).append("_max ").append(h.getMax()).append('\n');
+            } else {
+                sb.append(name).append(' ').append(value(metric)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Отдавать scrape() по http://хост:port/metrics. Сервер работает в своём потоке,
+     * пока его не остановят (HttpServer.stop).
+     */
+    HttpServer serve(int port) throws IOException {
+        // без TCP_NODELAY ответ ждёт подтверждения клиента ~40 мс (алгоритм Нейгла);
+        // сервер JDK читает это свойство один раз на процесс, поэтому ставим его до первого HttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    // --- JMX: атрибут на счётчик и значение, по несколько на гистограмму ---
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            String name = attributeName(e.getKey());
+            Object metric = e.getValue();
+            if (!(metric instanceof LatencyHistogram)) {
+                if (name.equals(attribute)) {
+                    return value(metric);
+                }
+                continue;
+            }
+            if (!attribute.startsWith(name + "_")) {
+                continue;
+            }
+            LatencyHistogram h = (LatencyHistogram) metric;
+            switch (attribute.substring(name.length() + 1)) {
+                case "p50": return h.percentile(0.5);
+                case "p90": return h.percentile(0.9);
+                case "p99": return h.percentile(0.99);
+                case "p999": return h.percentile(0.999);
+                case "count": return h.getCount();
+                case "max": return h.getMax();
+                default: break;
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // метрика не заведена – пропускаем, как требует DynamicMBean
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Метрики только для чтения: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Map.Entry<String, Object> e : metrics.entrySet()) {
+            String name = attributeName(e.getKey());
+            if (e.getValue() instanceof LatencyHistogram) {
+                for (String part : new String[]{"p50", "p90", "p99", "p999", "count", "max"}) {
+                    attributes.add(attribute(name + "_" + part, e.getKey()));
+                }
+            } else {
+                attributes.add(attribute(name, e.getKey()));
+            }
+        }
+        return new MBeanInfo(Metrics.class.getName(), "Метрики сервера «Морской бой»",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private static MBeanAttributeInfo attribute(String name, String description) {
+        return new MBeanAttributeInfo(name, "long", description, true, false, false);
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // без JMX метрики всё равно пишутся и доступны через scrape
+            System.out.println("Метрики не зарегистрированы в JMX: " + e.getMessage());
+        }
+    }
+
+    private static long value(Object metric) {
+        return metric instanceof LongAdder ? ((LongAdder) metric).sum() : ((LongSupplier) metric).getAsLong();
+    }
+
+    // Имя атрибута JMX: метки в имени заменяются подчёркиваниями – shots_total_result_HIT
+    private static String attributeName(String metric) {
+        return metric.replaceAll("[^A-Za-z0-9_]+", "_").replaceAll("_+$", "");
+    }
+}